@@ -0,0 +1,282 @@
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Writes the lines of a GameLogger to its file on a background thread, so that the game and player threads
+ * never wait for the disk. Lines are published to a bounded lock-free ring buffer and written in exactly the
+ * order they were published in, which for a game is the order of its turns. Publishing a line schedules the
+ * writer on the LogWriterThread that all the logs share, which drains the buffer in batches to the writer's
+ * LogSegments. Lines are handed to the file system after every batch but only forced to disk when a segment
+ * is closed, unless the log mode is DURABLE.
+ */
+class AsyncLogWriter {
+
+	static final int DEFAULT_CAPACITY = 8192;		// Lines
+	private static final long FULL_WAIT_NANOS = 50_000;		// How long a blocked producer sleeps before trying again
+
+	private final LogSegments segments;
+	private final LogMode mode;
+	private final String lineSeparator = System.lineSeparator();
+
+	// Line number s is published in slot s % capacity. A slot's sequence is s while it is free for line s
+	// and s + 1 once line s has been published in it.
+	private final int capacity;
+	private final AtomicReferenceArray<String> lines;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();		// Number of the next line to publish
+	private long head = 0;		// Number of the next line to write. Only used by the LogWriterThread.
+
+	// Lines that didn't fit in the ring buffer in SPILL mode. While spilling, every new line goes here so
+	// that the order is kept, until the writer has written the ring buffer and then the spilled lines.
+	private final ArrayDeque<String> spill = new ArrayDeque<>();		// Guarded by itself
+	private volatile boolean spilling = false;
+
+	private final AtomicLong droppedLines = new AtomicLong();
+	private final LogWriterThread writer = LogWriterThread.getShared();
+	private final AtomicBoolean scheduled = new AtomicBoolean();		// True from a line being queued until the writer visits
+	private final CountDownLatch finished = new CountDownLatch(1);		// Released once the file is closed
+	private final StringBuilder batch = new StringBuilder();		// Only used by the LogWriterThread
+	private volatile boolean closed = false;
+	private Boolean failed = false;		// Only used by the LogWriterThread
+
+
+	AsyncLogWriter(LogSegments segments, LogMode mode, int capacity) {
+		if (mode == LogMode.SYNCHRONOUS)
+			throw new IllegalArgumentException("Log mode must be asynchronous");
+		if (capacity < 2 || Integer.bitCount(capacity) != 1)
+			throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+
+		this.segments = segments;
+		this.mode = mode;
+		this.capacity = capacity;
+		this.lines = new AtomicReferenceArray<>(capacity);
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; ++i) {
+			sequences.set(i, i);
+		}
+	}
+
+
+	// ______________PACKAGE______________
+
+	/*
+	 * Queues a line to be written. What happens if the queue is full depends on the log mode. Lines
+	 * appended after the writer has been closed are ignored, as they are by a closed PrintWriter.
+	 */
+	void append(String line) {
+		if (closed)
+			return;
+
+		if (spilling && appendToSpill(line)) {
+			schedule();
+			return;
+		}
+
+		while (!offer(line)) {
+			switch (mode) {
+				case DROP:
+					droppedLines.incrementAndGet();
+					return;
+				case SPILL:
+					synchronized (spill) {
+						spilling = true;
+						spill.add(line);
+					}
+					schedule();
+					return;
+				default:
+					schedule();
+					LockSupport.parkNanos(this, FULL_WAIT_NANOS);
+			}
+		}
+		schedule();
+	}
+
+	long getDroppedLines() {
+		return droppedLines.get();
+	}
+
+	/*
+	 * Waits for the writer to write every queued line, then closes the file.
+	 */
+	void close() {
+		closed = true;
+		schedule();
+
+		Boolean interrupted = false;
+		while (finished.getCount() > 0) {
+			try {
+				finished.await();
+			}
+			catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/*
+	 * Called by the LogWriterThread on each visit. Writes one batch of queued lines and schedules another
+	 * visit in case there are more, or closes the file once the writer has been closed and nothing is left.
+	 */
+	void writeBatch() {
+		if (finished.getCount() == 0)
+			return;
+
+		scheduled.set(false);
+		// Read before draining so that every line appended before close() is written
+		Boolean closing = closed;
+
+		if (drain(batch) > 0) {
+			write(batch);
+			schedule();
+		}
+		else if (closing) {
+			finish();
+		}
+	}
+
+
+	// ______________PRIVATE______________
+
+	/*
+	 * Schedules a visit from the LogWriterThread unless one is scheduled already.
+	 */
+	private void schedule() {
+		if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+			writer.schedule(this);
+		}
+	}
+
+	/*
+	 * Publishes a line in the ring buffer. Returns false if the buffer is full.
+	 */
+	private Boolean offer(String line) {
+		long number = tail.get();
+
+		while (true) {
+			int slot = (int) (number & (capacity - 1));
+			long difference = sequences.get(slot) - number;
+
+			if (difference == 0) {
+				if (tail.compareAndSet(number, number + 1)) {
+					lines.set(slot, line);
+					sequences.set(slot, number + 1);
+					return true;
+				}
+			}
+			else if (difference < 0) {
+				return false;		// The slot still holds a line that hasn't been written
+			}
+			number = tail.get();
+		}
+	}
+
+	/*
+	 * Takes the next line out of the ring buffer, or returns null if there isn't one.
+	 */
+	private String poll() {
+		int slot = (int) (head & (capacity - 1));
+		if (sequences.get(slot) != head + 1)
+			return null;
+
+		String line = lines.get(slot);
+		lines.set(slot, null);
+		sequences.set(slot, head + capacity);
+		++head;
+		return line;
+	}
+
+	private Boolean appendToSpill(String line) {
+		synchronized (spill) {
+			if (!spilling)
+				return false;
+
+			spill.add(line);
+			return true;
+		}
+	}
+
+	/*
+	 * Logs how many lines were dropped, if any, and closes the file.
+	 */
+	private void finish() {
+		try {
+			long dropped = droppedLines.get();
+			if (dropped > 0) {
+				System.err.println(dropped + " lines were dropped from a full log queue!");
+				batch.append("--").append(dropped).append(" log lines were dropped").append(lineSeparator);
+				write(batch);
+			}
+
+			segments.close();
+		}
+		catch (IOException e) {
+			System.err.println("Error closing log file!");
+			e.printStackTrace();
+		}
+		finally {
+			finished.countDown();
+		}
+	}
+
+	/*
+	 * Moves the lines in the ring buffer, and then any spilled lines, into the batch. Returns the number
+	 * of lines moved.
+	 */
+	private int drain(StringBuilder batch) {
+		int count = 0;
+
+		while (count < capacity) {
+			String line = poll();
+			if (line == null)
+				break;
+
+			batch.append(line).append(lineSeparator);
+			++count;
+		}
+
+		// Spilled lines come after everything in the ring buffer, so they are only taken once it is empty
+		if (count < capacity && spilling) {
+			synchronized (spill) {
+				for (String line : spill) {
+					batch.append(line).append(lineSeparator);
+				}
+				count += spill.size();
+				spill.clear();
+				spilling = false;
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * Writes the batch to the file, forcing it to disk in DURABLE mode, then empties the batch. After the
+	 * first error lines are discarded so that logging never blocks the game.
+	 */
+	private void write(StringBuilder batch) {
+		try {
+			if (!failed) {
+				segments.append(batch);
+				segments.flush();
+				if (mode == LogMode.DURABLE) {
+					segments.force();
+				}
+			}
+		}
+		catch (IOException e) {
+			failed = true;
+			System.err.println("Error writing log file, the rest of the log is discarded!");
+			e.printStackTrace();
+		}
+		batch.setLength(0);
+	}
+}
@@ -0,0 +1,226 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * GameStream that sends every message as a length prefixed binary frame:
+ * 
+ *   +----------------+---------------------+
+ *   | length (2 B)   | payload (length B)  |
+ *   +----------------+---------------------+
+ * 
+ * Fields are encoded in the payload as follows:
+ *   command     1 byte, code of the GameProtocol value
+ *   int         4 bytes, big endian
+ *   long        8 bytes, big endian
+ *   suit        1 byte, ordinal of the Suit
+ *   card        1 byte, ordinal of the Card (suit * 13 + type)
+ *   cards       2 byte count followed by one byte per card
+ *   string      2 byte length followed by that many bytes of UTF-8
+ */
+class BinaryGameStream implements GameStream {
+
+	static final int MAX_FRAME_LENGTH = 0xFFFF;
+	
+	private static final Suit[] SUITS = Suit.values();
+	
+	private final DataOutputStream out;
+	private final DataInputStream in;
+	
+	// Fields written since the last message was sent
+	private final ByteArrayOutputStream frame = new ByteArrayOutputStream(256);
+	private final DataOutputStream frameOut = new DataOutputStream(frame);
+	
+	// Remaining fields of the last message read
+	private ByteBuffer frameIn = ByteBuffer.allocate(256).limit(0);
+	
+	
+	/*
+	 * The passed streams should be buffered, as every message is written with several small writes and
+	 * flushed once it is complete.
+	 */
+	BinaryGameStream(DataOutputStream out, DataInputStream in) {
+		this.out = out;
+		this.in = in;
+	}
+	
+	@Override
+	public WireFormat getWireFormat() {
+		return WireFormat.BINARY;
+	}
+
+	@Override
+	public void writeCommand(GameProtocol cmd) throws IOException {
+		frameOut.writeByte(cmd.getCode());
+	}
+
+	@Override
+	public void writeInt(int value) throws IOException {
+		frameOut.writeInt(value);
+	}
+
+	@Override
+	public void writeLong(long value) throws IOException {
+		frameOut.writeLong(value);
+	}
+
+	@Override
+	public void writeSuit(Suit suit) throws IOException {
+		frameOut.writeByte(suit.ordinal());
+	}
+
+	@Override
+	public void writeCard(Card card) throws IOException {
+		frameOut.writeByte(card.getOrdinal());
+	}
+
+	@Override
+	public void writeCards(CardCollection cards) throws IOException {
+		frameOut.writeShort(cards.size());
+		for (Card card : cards) {
+			frameOut.writeByte(card.getOrdinal());
+		}
+	}
+
+	@Override
+	public void writeString(String str) throws IOException {
+		byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		
+		if (bytes.length > MAX_FRAME_LENGTH)
+			throw new IOException("String is too long to be sent: " + bytes.length + " bytes");
+		
+		frameOut.writeShort(bytes.length);
+		frameOut.write(bytes);
+	}
+
+	@Override
+	public void endMessage() throws IOException {
+		queueMessage();
+		flush();
+	}
+
+	@Override
+	public void queueMessage() throws IOException {
+		if (frame.size() > MAX_FRAME_LENGTH)
+			throw new IOException("Message is too long to be sent: " + frame.size() + " bytes");
+		
+		out.writeShort(frame.size());
+		frame.writeTo(out);
+		frame.reset();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public GameProtocol readCommand() throws IOException {
+		int opcode = next(1).get() & 0xFF;
+		GameProtocol command = GameProtocol.fromCode(opcode);
+		
+		if (command == null)
+			throw new IOException("Unknown opcode: " + opcode);
+		
+		return command;
+	}
+
+	@Override
+	public int readInt() throws IOException {
+		return next(4).getInt();
+	}
+
+	@Override
+	public long readLong() throws IOException {
+		return next(8).getLong();
+	}
+
+	@Override
+	public Suit readSuit() throws IOException {
+		int suit = next(1).get() & 0xFF;
+		
+		if (suit >= SUITS.length)
+			throw new IOException("Invalid suit: " + suit);
+		
+		return SUITS[suit];
+	}
+
+	@Override
+	public Card readCard() throws IOException {
+		return toCard(next(1).get());
+	}
+
+	@Override
+	public CardCollection readCards() throws IOException {
+		int count = next(2).getShort() & 0xFFFF;
+		ByteBuffer buffer = next(count);
+		
+		CardCollection cards = new CardCollection(CardStorage.BYTE_ARRAY);
+		for (int i = 0; i < count; ++i) {
+			cards.addCard(toCard(buffer.get()));
+		}
+		return cards;
+	}
+
+	@Override
+	public String readString() throws IOException {
+		int length = next(2).getShort() & 0xFFFF;
+		ByteBuffer buffer = next(length);
+		
+		String str = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return str;
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+		in.close();
+	}
+	
+	
+	// ______________PRIVATE______________
+	
+	/*
+	 * Returns the buffer of the current message after checking that it holds the given number of bytes.
+	 * Reads the next message if all of the current one has been read.
+	 */
+	private ByteBuffer next(int numOfBytes) throws IOException {
+		if (numOfBytes > 0 && !frameIn.hasRemaining()) {
+			readFrame();
+		}
+		if (frameIn.remaining() < numOfBytes) 
+			throw new IOException("Malformed message: expected " + numOfBytes + " more bytes but only " 
+								  + frameIn.remaining() + " are left");
+		
+		return frameIn;
+	}
+	
+	private void readFrame() throws IOException {
+		int length = in.readUnsignedShort();
+		
+		if (length > frameIn.capacity()) {
+			frameIn = ByteBuffer.allocate(length);
+		}
+		frameIn.clear();
+		
+		try {
+			in.readFully(frameIn.array(), 0, length);
+		}
+		catch (EOFException e) {
+			throw new EOFException("Connection closed in the middle of a message");
+		}
+		frameIn.limit(length);
+	}
+	
+	private static Card toCard(byte ordinal) throws IOException {
+		if (ordinal < 0 || ordinal >= Card.NUM_OF_CARDS)
+			throw new IOException("Invalid card: " + ordinal);
+		
+		return Card.fromOrdinal(ordinal);
+	}
+}
@@ -0,0 +1,237 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Usage: java BotSwarm <bots> [concurrency=<bots>] [rate=<connections per second>] [think=<time>] [players=<seats>]
+ *                      [object] [virtual]
+ * Load tests a GameServer running on localhost with the given number of scripted PlayerClients, each of which
+ * connects, plays one game and disconnects. At most "concurrency" bots are connected at a time, every bot
+ * is replaced by a new one once it is done, and new bots connect at no more than "rate" connections a second,
+ * as fast as they can if no rate is given. Bots take the given think time over each of their decisions,
+ * which is written as none, fixed:<ms>, uniform:<min ms>-<max ms> or exp:<mean ms>, see ThinkTime. The
+ * number of players must match the server's start file, 4 by default, and the number of bots must fill
+ * whole tables. If "object" is given the bots use object streams, and if "virtual" is given they are run on
+ * virtual threads when the JVM supports them.
+ *
+ * Progress is printed every few seconds. Once every bot is done, the games played a second, the time taken
+ * to connect and negotiate the wire format, and the dump to pile latency are printed. That latency runs from
+ * a bot sending the cards it dumps to the pile arriving for its draw, so it covers the server and the network
+ * but not the bot, see PlayerClient.setPileLatencies(). Only turns with a draw are timed, so under rules that
+ * never draw it stays empty. The server's own view of each command is
+ * published by its "metrics" option. Each bot holds a socket open for the whole game, so a large concurrency
+ * may need a higher limit on open files.
+ */
+public class BotSwarm {
+
+	private static final int DEFAULT_PLAYERS = 4;
+	private static final long PROGRESS_INTERVAL_SECONDS = 5;
+
+	private final int numOfBots;
+	private final int playersPerTable;
+	private final int concurrency;
+	private final double connectRate;		// 0 if bots connect as fast as they can
+	private final ThinkTime thinkTime;
+	private final WireFormat wireFormat;
+	private final ThreadFactory threadFactory;
+
+	private final Semaphore connectedBots;
+	private final CountDownLatch remainingBots;
+	private final LongAdder finishedBots = new LongAdder();
+	private final LongAdder failedBots = new LongAdder();
+	private final LatencyHistogram connectLatencies = new LatencyHistogram();
+	private final LatencyHistogram pileLatencies = new LatencyHistogram();
+	private long startNanos;
+	private long elapsedNanos;
+
+
+	// ______________PUBLIC______________
+
+	public BotSwarm(int numOfBots, int concurrency, int playersPerTable, double connectRate, ThinkTime thinkTime,
+					WireFormat wireFormat, ThreadFactory threadFactory) {
+		if (numOfBots < 1)
+			throw new IllegalArgumentException("Invalid number of bots: " + numOfBots);
+		if (playersPerTable < 1)
+			throw new IllegalArgumentException("Invalid number of players: " + playersPerTable);
+		if (numOfBots % playersPerTable != 0)
+			throw new IllegalArgumentException(numOfBots + " bots cannot fill tables of " + playersPerTable + " players");
+		if (concurrency < playersPerTable)
+			throw new IllegalArgumentException("A concurrency of " + concurrency + " cannot fill a table of " + playersPerTable + " players");
+		if (connectRate < 0)
+			throw new IllegalArgumentException("Invalid connection rate: " + connectRate);
+
+		this.numOfBots = numOfBots;
+		this.playersPerTable = playersPerTable;
+		this.concurrency = concurrency;
+		this.connectRate = connectRate;
+		this.thinkTime = thinkTime;
+		this.wireFormat = wireFormat;
+		this.threadFactory = threadFactory;
+		connectedBots = new Semaphore(concurrency);
+		remainingBots = new CountDownLatch(numOfBots);
+	}
+
+	/*
+	 * Starts the bots and waits until every one of them is done. The bots don't print the results of their
+	 * games, only their errors.
+	 */
+	public void run() throws InterruptedException {
+		System.out.println("Running " + numOfBots + " bots, " + concurrency + " at a time, "
+						+ ((connectRate > 0) ? "connecting at " + connectRate + " a second" : "connecting as fast as they can")
+						+ ", think time " + thinkTime);
+
+		ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "swarm progress");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			startNanos = System.nanoTime();
+			progress.scheduleAtFixedRate(() -> printProgress(System.out), PROGRESS_INTERVAL_SECONDS, PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+			startBots();
+			remainingBots.await();
+			elapsedNanos = System.nanoTime() - startNanos;
+		}
+		finally {
+			progress.shutdownNow();
+		}
+	}
+
+	/*
+	 * Prints the throughput and latencies measured by the last run.
+	 */
+	public void printReport(PrintStream out) {
+		double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+		long games = finishedBots.sum() / playersPerTable;
+
+		out.println();
+		out.printf("Bots:             %d finished, %d failed in %.2f s%n", finishedBots.sum(), failedBots.sum(), seconds);
+		out.printf("Games:            %d, %.1f games/s%n", games, games / seconds);
+		out.println("Connection setup: " + connectLatencies.getSnapshot());
+		out.println("Dump->pile latency (draw turns only): " + pileLatencies.getSnapshot());
+	}
+
+
+	// ______________PRIVATE______________
+
+	/*
+	 * Starts every bot, each once fewer than the maximum number of bots are connected and no sooner than the
+	 * connection rate allows. A rate that is held back by the concurrency is not made up for later.
+	 */
+	private void startBots() throws InterruptedException {
+		long intervalNanos = (connectRate > 0) ? (long) (TimeUnit.SECONDS.toNanos(1) / connectRate) : 0;
+		long nextConnectNanos = System.nanoTime();
+
+		for (int i = 1; i <= numOfBots; ++i) {
+			connectedBots.acquire();
+
+			long waitNanos = nextConnectNanos - System.nanoTime();
+			if (waitNanos > 0) {
+				TimeUnit.NANOSECONDS.sleep(waitNanos);
+			}
+			nextConnectNanos = Math.max(nextConnectNanos, System.nanoTime()) + intervalNanos;
+
+			int bot = i;
+			threadFactory.newThread(() -> playGame(bot)).start();
+		}
+	}
+
+	/*
+	 * Connects a bot, plays its game and disconnects it.
+	 */
+	private void playGame(int bot) {
+		try {
+			PlayerClient client = new PlayerClient("Bot " + bot, wireFormat);
+			client.setThinkTime(thinkTime);
+			client.setPileLatencies(pileLatencies);
+			client.setQuiet(true);
+
+			long connectStart = System.nanoTime();
+			client.openConnection();
+			connectLatencies.record(System.nanoTime() - connectStart);
+			try {
+				client.listen();
+			}
+			finally {
+				client.closeConnection();
+			}
+			finishedBots.increment();
+		}
+		catch (IOException | ClassNotFoundException | RuntimeException e) {
+			failedBots.increment();
+			System.err.println("Bot " + bot + " failed: " + e);
+		}
+		finally {
+			connectedBots.release();
+			remainingBots.countDown();
+		}
+	}
+
+	private void printProgress(PrintStream out) {
+		double seconds = (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+		long games = finishedBots.sum() / playersPerTable;
+
+		out.printf("%6.0f s: %d bots finished, %d failed, %d connected, %.1f games/s, dump->pile p99 %.1f us%n", seconds, finishedBots.sum(),
+				   failedBots.sum(), concurrency - connectedBots.availablePermits(), games / seconds, pileLatencies.getSnapshot().getP99Micros());
+	}
+
+	/*
+	 * Returns the value of an option given as name=value.
+	 */
+	private static String getOptionValue(String option) {
+		return option.substring(option.indexOf('=') + 1);
+	}
+
+
+	// ______________MAIN______________
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: java BotSwarm <bots> [concurrency=<bots>] [rate=<connections per second>] [think=<time>] [players=<seats>] [object] [virtual]");
+			return;
+		}
+
+		BotSwarm swarm;
+		try {
+			int numOfBots = Integer.parseInt(args[0]);
+			int concurrency = numOfBots;
+			int playersPerTable = DEFAULT_PLAYERS;
+			double connectRate = 0;
+			ThinkTime thinkTime = ThinkTime.NONE;
+			WireFormat wireFormat = WireFormat.BINARY;
+			Boolean useVirtualThreads = false;
+
+			for (int i = 1; i < args.length; ++i) {
+				if (args[i].startsWith("concurrency="))
+					concurrency = Integer.parseInt(getOptionValue(args[i]));
+				else if (args[i].startsWith("rate="))
+					connectRate = Double.parseDouble(getOptionValue(args[i]));
+				else if (args[i].startsWith("think="))
+					thinkTime = ThinkTime.parse(getOptionValue(args[i]));
+				else if (args[i].startsWith("players="))
+					playersPerTable = Integer.parseInt(getOptionValue(args[i]));
+				else if (args[i].equalsIgnoreCase("object"))
+					wireFormat = WireFormat.OBJECT_STREAM;
+				else if (args[i].equalsIgnoreCase("virtual"))
+					useVirtualThreads = true;
+				else
+					System.err.println("Unknown option: " + args[i]);
+			}
+			swarm = new BotSwarm(numOfBots, concurrency, playersPerTable, connectRate, thinkTime, wireFormat, GameThreads.create(useVirtualThreads));
+		}
+		catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			return;
+		}
+
+		swarm.run();
+		swarm.printReport(System.out);
+	}
+}
@@ -0,0 +1,265 @@
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.random.RandomGenerator;
+
+/*
+ * CardStore backed by a growable byte array of card ordinals (suit * 13 + type). Cards are mapped
+ * back to their canonical instances on access, so mutations never allocate once the array has
+ * grown to its working size. This store is not thread safe.
+ */
+class ByteArrayCardStore implements CardStore {
+
+	private static final long serialVersionUID = 4311L;
+	private static final int DEFAULT_CAPACITY = 16;
+	
+	private transient byte[] cards = new byte[DEFAULT_CAPACITY];
+	private int size = 0;
+	private transient int modCount = 0;		// Used by iterators to detect modification during iteration.
+	
+	@Override
+	public CardStorage getStorage() {
+		return CardStorage.BYTE_ARRAY;
+	}
+
+	@Override
+	public void add(Card card) {
+		ensureCapacity(size + 1);
+		cards[size++] = (byte) card.getOrdinal();
+		modCount++;
+	}
+
+	@Override
+	public void addAll(CardStore store) {
+		int toAdd = store.size();
+		ensureCapacity(size + toAdd);
+		
+		if (store instanceof ByteArrayCardStore) {
+			System.arraycopy(((ByteArrayCardStore) store).cards, 0, cards, size, toAdd);
+		}
+		else {
+			for (int i = 0; i < toAdd; ++i) {
+				cards[size + i] = (byte) store.get(i).getOrdinal();
+			}
+		}
+		size += toAdd;
+		modCount++;
+	}
+
+	@Override
+	public void addAll(List<Card> toAdd) {
+		int numOfCards = toAdd.size();
+		ensureCapacity(size + numOfCards);
+		
+		// Indexed rather than iterated, as whole decks are added this way
+		for (int i = 0; i < numOfCards; ++i) {
+			cards[size++] = (byte) toAdd.get(i).getOrdinal();
+		}
+		modCount++;
+	}
+
+	@Override
+	public void addRange(CardStore store, int from, int to) {
+		int toAdd = to - from;
+		ensureCapacity(size + toAdd);
+		
+		if (store instanceof ByteArrayCardStore) {
+			System.arraycopy(((ByteArrayCardStore) store).cards, from, cards, size, toAdd);
+		}
+		else {
+			for (int i = 0; i < toAdd; ++i) {
+				cards[size + i] = (byte) store.get(from + i).getOrdinal();
+			}
+		}
+		size += toAdd;
+		modCount++;
+	}
+
+	@Override
+	public Card get(int index) {
+		checkIndex(index);
+		return Card.fromOrdinal(cards[index]);
+	}
+
+	@Override
+	public Card removeAt(int index) {
+		checkIndex(index);
+		Card removed = Card.fromOrdinal(cards[index]);
+		
+		int toMove = size - index - 1;
+		if (toMove > 0) {
+			System.arraycopy(cards, index + 1, cards, index, toMove);
+		}
+		size--;
+		modCount++;
+		return removed;
+	}
+
+	@Override
+	public boolean remove(Card card) {
+		int index = indexOf(card);
+		
+		if (index == -1)
+			return false;
+		
+		removeAt(index);
+		return true;
+	}
+
+	@Override
+	public void removeCounts(int[] counts) {
+		int[] remaining = counts.clone();
+		int kept = 0;
+		
+		// Compact the array in place, skipping the cards that are being removed
+		for (int i = 0; i < size; ++i) {
+			if (remaining[cards[i]] > 0) {
+				remaining[cards[i]]--;
+			}
+			else {
+				cards[kept++] = cards[i];
+			}
+		}
+		size = kept;
+		modCount++;
+	}
+
+	@Override
+	public void truncate(int newSize) {
+		if (newSize < 0 || newSize > size)
+			throw new IndexOutOfBoundsException("New size: " + newSize + ", Size: " + size);
+		
+		size = newSize;
+		modCount++;
+	}
+
+	@Override
+	public boolean contains(Card card) {
+		return indexOf(card) != -1;
+	}
+
+	/*
+	 * Counting sort over the 52 possible ordinals, which is linear in the number of cards.
+	 */
+	@Override
+	public void sort() {
+		int[] counts = new int[Card.NUM_OF_CARDS];
+		for (int i = 0; i < size; ++i) {
+			counts[cards[i]]++;
+		}
+		
+		int pos = 0;
+		for (int suit = 0; suit < Suit.values().length; ++suit) {
+			// Card types are stored in ascending order within a suit but are sorted in descending order
+			for (int type = Card.CARDS_PER_SUIT - 1; type >= 0; --type) {
+				int ordinal = suit * Card.CARDS_PER_SUIT + type;
+				for (int n = counts[ordinal]; n > 0; --n) {
+					cards[pos++] = (byte) ordinal;
+				}
+			}
+		}
+		modCount++;
+	}
+
+	/*
+	 * In place Fisher-Yates shuffle.
+	 */
+	@Override
+	public void shuffle(RandomGenerator random) {
+		for (int i = size - 1; i > 0; --i) {
+			int j = random.nextInt(i + 1);
+			byte temp = cards[i];
+			cards[i] = cards[j];
+			cards[j] = temp;
+		}
+		modCount++;
+	}
+
+	@Override
+	public void clear() {
+		size = 0;
+		modCount++;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Iterator<Card> iterator() {
+		return new Iterator<Card>() {
+			private int next = 0;
+			private final int expectedModCount = modCount;
+			
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public Card next() {
+				if (modCount != expectedModCount)
+					throw new ConcurrentModificationException();
+				if (next >= size)
+					throw new NoSuchElementException();
+				
+				return Card.fromOrdinal(cards[next++]);
+			}
+		};
+	}
+	
+	
+	// ______________PRIVATE______________
+	
+	private int indexOf(Card card) {
+		if (card == null)
+			return -1;
+		
+		byte ordinal = (byte) card.getOrdinal();
+		for (int i = 0; i < size; ++i) {
+			if (cards[i] == ordinal)
+				return i;
+		}
+		return -1;
+	}
+	
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+	}
+	
+	private void ensureCapacity(int capacity) {
+		if (capacity > cards.length) {
+			cards = Arrays.copyOf(cards, Math.max(capacity, cards.length * 2));
+		}
+	}
+	
+	/*
+	 * Only the used part of the array is written.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.write(cards, 0, size);
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		
+		if (size < 0 || size > Integer.MAX_VALUE - 8)
+			throw new IOException("Invalid card count: " + size);
+		
+		cards = new byte[Math.max(size, DEFAULT_CAPACITY)];
+		in.readFully(cards, 0, size);
+		
+		for (int i = 0; i < size; ++i) {
+			if (cards[i] < 0 || cards[i] >= Card.NUM_OF_CARDS)
+				throw new IOException("Invalid card ordinal: " + cards[i]);
+		}
+	}
+}
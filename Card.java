@@ -1,51 +1,135 @@
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Cards are flyweights. There are only 52 distinct playing cards, so a single canonical instance of
+ * each one is created up front and handed out by Card.of(). Identity is given by the card's ordinal
+ * (suit * 13 + type), which makes equality and hashing a single int comparison.
+ */
 
 public class Card implements Serializable {
-	
+
 	private static final long serialVersionUID = 123L;
+
+	public static final int CARDS_PER_SUIT = CardType.values().length;
+	public static final int NUM_OF_CARDS = Suit.values().length * CARDS_PER_SUIT;
+
+	private static final Card[] CANONICAL_CARDS = new Card[NUM_OF_CARDS];
+	private static final List<Card> STANDARD_DECK;
+
+	static {
+		for (Suit suit : Suit.values()) {
+			for (CardType value : CardType.values()) {
+				Card card = new Card(suit, value);
+				CANONICAL_CARDS[card.ordinal] = card;
+			}
+		}
+		STANDARD_DECK = Collections.unmodifiableList(Arrays.asList(CANONICAL_CARDS));
+	}
+
 	private CardType value;
 	private Suit suit;
 	private String name;
-	
-	public Card(Suit suit, CardType value) {
+	private int ordinal;
+
+	private Card(Suit suit, CardType value) {
 		this.suit = suit;
 		this.value = value;
+		this.ordinal = ordinalOf(suit, value);
 		setName();
 	}
-	
+
+
+	// ______________PUBLIC______________
+
+	/*
+	 * Returns the canonical instance of the card with the given suit and type.
+	 */
+	public static Card of(Suit suit, CardType value) {
+		if (suit == null || value == null)
+			throw new IllegalArgumentException("Card suit and type cannot be null");
+
+		return CANONICAL_CARDS[ordinalOf(suit, value)];
+	}
+
+	/*
+	 * Returns the canonical instance of the card with the given ordinal (0..51).
+	 */
+	public static Card fromOrdinal(int ordinal) {
+		if (ordinal < 0 || ordinal >= NUM_OF_CARDS)
+			throw new IllegalArgumentException("Invalid card ordinal: " + ordinal);
+
+		return CANONICAL_CARDS[ordinal];
+	}
+
+	/*
+	 * Returns the 52 canonical cards of a standard deck, ordered by suit and then by type.
+	 */
+	public static List<Card> standardDeck() {
+		return STANDARD_DECK;
+	}
+
 	public CardType getCardType() {
 		return this.value;
 	}
-	
+
 	public Suit getSuit() {
 		return this.suit;
 	}
-	
+
 	public String getName() {
 		return this.name;
 	}
-	
-	private void setName() {
-		String aSuit = this.suit.toString();
-		String aValue = this.value.toString();
 
-		this.name = aValue + " of " + aSuit;
+	/*
+	 * Returns the position of the card within a standard deck i.e suit * 13 + type.
+	 */
+	public int getOrdinal() {
+		return this.ordinal;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
-		if (obj == null) {
+		if (obj == this) {
+            return true;
+        }
+		if (!(obj instanceof Card)) {
 			return false;
 		}
-		
-		 // If the object is compared with itself then return true   
-        if (obj == this) {
-            return true; 
-        }
-  
-        // Cast obj to Card so that we can compare data members  
-        final Card toCompare = (Card) obj; 
-          
-        return this.name.equals(toCompare.getName());
+        return this.ordinal == ((Card) obj).ordinal;
+	}
+
+	@Override
+	public int hashCode() {
+		return ordinal;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+
+	// ______________PRIVATE______________
+
+	private static int ordinalOf(Suit suit, CardType value) {
+		return suit.ordinal() * CARDS_PER_SUIT + value.ordinal();
+	}
+
+	private void setName() {
+		String aSuit = this.suit.toString();
+		String aValue = this.value.toString();
+
+		this.name = aValue + " of " + aSuit;
+	}
+
+	/*
+	 * Deserialized cards are replaced by their canonical instances so that there is only ever
+	 * one instance of each card in the JVM.
+	 */
+	private Object readResolve() {
+		return of(suit, value);
 	}
 }
@@ -1,18 +1,31 @@
 import java.io.Serializable;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Random;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
-public class CardCollection implements Serializable {
+public class CardCollection implements Serializable, Iterable<Card> {
 
 	private static final long serialVersionUID = 19645L;
 	
 	/*
-	 * CopyOnWriteArrayList is used for thread safety purposes as a normal ArrayList
-	 * will throw ConcurrentModificationException if multiple threads try to modify it.
+	 * By default a CopyOnWriteArrayList is used for thread safety purposes as a normal ArrayList
+	 * will throw ConcurrentModificationException if multiple threads try to modify it. Collections
+	 * that are confined to a single thread, or only accessed under a lock, can instead use the
+	 * BYTE_ARRAY storage which does not copy the whole collection on every mutation.
 	 */
-	private CopyOnWriteArrayList<Card> cards = new CopyOnWriteArrayList<>();
+	private CardStore cards;
+	
+	/*
+	 * Running sums of the card values in the collection, in total and per suit. They are updated on
+	 * every add and remove so that the score of the collection can be calculated in O(1).
+	 */
+	private int totalValue = 0;
+	private int[] suitValues = new int[Suit.values().length];
+	
+	// Index of the cards by score for a selected suit. Only kept once indexBySuit() has been called.
+	private transient CardScoreIndex scoreIndex = null;
 	
 	private int deckLimit;
 	private Boolean isLimited = false;		// Indicates whether a limit on the number of cards in the collection has been set.
@@ -22,13 +35,25 @@ public class CardCollection implements Serializable {
 	
 	// __Constructors__
 	
-	public CardCollection() {}
+	public CardCollection() {
+		this(CardStorage.COPY_ON_WRITE);
+	}
+	
+	public CardCollection(CardStorage storage) {
+		cards = createStore(storage);
+	}
 	
 	public CardCollection(int numOfDecks) {
+		this(CardStorage.COPY_ON_WRITE);
 		addDecks(numOfDecks);
 	}
 	
 	public CardCollection(int numOfDecks, int deckLimit) {
+		this(numOfDecks, deckLimit, CardStorage.COPY_ON_WRITE);
+	}
+	
+	public CardCollection(int numOfDecks, int deckLimit, CardStorage storage) {
+		this(storage);
 		this.deckLimit = deckLimit;
 		isLimited = true;
 		enforceTotalCardLimit(numOfDecks * Deck.DECK_SIZE);
@@ -36,10 +61,16 @@ public class CardCollection implements Serializable {
 	}
 	
 	public CardCollection(CardCollection aCollec) {
+		this(aCollec, CardStorage.COPY_ON_WRITE);
+	}
+	
+	public CardCollection(CardCollection aCollec, CardStorage storage) {
+		this(storage);
 		addCardCollection(aCollec);
 	}
 	
 	public CardCollection(CardCollection aCollec, int deckLimit) {
+		this(CardStorage.COPY_ON_WRITE);
 		this.deckLimit = deckLimit;
 		isLimited = true;
 		enforceTotalCardLimit(aCollec.size());
@@ -57,6 +88,7 @@ public class CardCollection implements Serializable {
 			enforceTotalCardLimit(1);
 		}
 		cards.add(card);
+		addValue(card);
 	}
 	
 	/*
@@ -67,6 +99,36 @@ public class CardCollection implements Serializable {
 			enforceTotalCardLimit(collection.size());
 		}
 		cards.addAll(collection.cards);
+		
+		totalValue += collection.totalValue;
+		for (int i = 0; i < suitValues.length; ++i) {
+			suitValues[i] += collection.suitValues[i];
+		}
+		if (scoreIndex != null) {
+			for (Card card : collection) {
+				scoreIndex.addCard(card);
+			}
+		}
+	}
+	
+	/*
+	 * Returns the storage used by the collection.
+	 */
+	public CardStorage getStorage() {
+		return cards.getStorage();
+	}
+	
+	/*
+	 * Add all the cards in the passed list into this collection with a single store operation.
+	 */
+	void addCards(List<Card> toAdd) {
+		if (isLimited) {
+			enforceTotalCardLimit(toAdd.size());
+		}
+		cards.addAll(toAdd);
+		for (Card card : toAdd) {
+			addValue(card);
+		}
 	}
 	
 	/*	
@@ -81,10 +143,20 @@ public class CardCollection implements Serializable {
 	}
 	
 	/*
-	 * Shuffle the card collection.
+	 * Shuffle the card collection. Throws IllegalStateException if the collection uses the SORTED
+	 * storage, whose cards are always in sorted order.
 	 */
 	public void shuffle() {
-		Collections.shuffle(cards);
+		shuffle(ThreadLocalRandom.current());
+	}
+	
+	/*
+	 * Shuffle the card collection using the given random number generator, so that the order 
+	 * can be reproduced from its seed. Throws IllegalStateException for SORTED collections.
+	 */
+	public void shuffle(RandomGenerator random) {
+		checkShufflable();
+		cards.shuffle(random);
 	}
 	
 	/*
@@ -100,16 +172,81 @@ public class CardCollection implements Serializable {
 	 * Removes a random card from the collection and returns it.
 	 */
 	public Card drawRandomCard() {
-		int randomIndex = new Random().nextInt(this.cards.size());
-		return cards.remove(randomIndex);
+		return drawRandomCard(ThreadLocalRandom.current());
+	}
+	
+	/*
+	 * Removes a random card, chosen using the given random number generator, from the collection and returns it.
+	 */
+	public Card drawRandomCard(RandomGenerator random) {
+		int randomIndex = random.nextInt(this.cards.size());
+		return removeValue(cards.removeAt(randomIndex));
+	}
+	
+	/*
+	 * Keeps an index of the cards by their score for the selected suit, which is updated on every add and 
+	 * remove. Drawing the highest or lowest score cards for that suit then doesn't need to score every card.
+	 */
+	public void indexBySuit(Suit selectedSuit) {
+		scoreIndex = createScoreIndex(selectedSuit);
+	}
+	
+	/*
+	 * Removes the card at the top of the collection, i.e the last card, and returns it. Removing from
+	 * the top doesn't shift any other cards, so drawing from a shuffled pile this way is O(1).
+	 */
+	public Card drawTop() {
+		if (cards.size() == 0)
+			throw new IllegalStateException("Cannot draw from an empty collection");
+		
+		return removeValue(cards.removeAt(cards.size() - 1));
+	}
+	
+	/*
+	 * Shuffles the collection once and then deals the given number of cards to each player by handing
+	 * out contiguous slices from the top of the collection. The dealt cards are removed from the collection
+	 * and any cards left over stay in it. Returns the hands in the given storage, in order of players.
+	 * Throws IllegalStateException for SORTED collections, which cannot be shuffled.
+	 */
+	public CardCollection[] deal(int numOfPlayers, int cardsPerPlayer, CardStorage handStorage, RandomGenerator random) {
+		if (numOfPlayers < 1 || cardsPerPlayer < 0)
+			throw new IllegalArgumentException("Cannot deal " + cardsPerPlayer + " cards to " + numOfPlayers + " players");
+		if (numOfPlayers * cardsPerPlayer > cards.size())
+			throw new IllegalStateException("Cannot deal " + cardsPerPlayer + " cards to " + numOfPlayers 
+											+ " players from a collection of " + cards.size() + " cards");
+		checkShufflable();
+		
+		cards.shuffle(random);
+		
+		CardCollection[] hands = new CardCollection[numOfPlayers];
+		int top = cards.size();
+		
+		for (int i = 0; i < numOfPlayers; ++i) {
+			hands[i] = new CardCollection(handStorage);
+			hands[i].cards.addRange(cards, top - cardsPerPlayer, top);
+			
+			for (int j = top - cardsPerPlayer; j < top; ++j) {
+				Card card = cards.get(j);
+				hands[i].addValue(card);
+				removeValue(card);
+			}
+			top -= cardsPerPlayer;
+		}
+		cards.truncate(top);
+		return hands;
 	}
 	
 	/*
 	 * Removes the highest score card from the collection and returns it.
 	 */
 	public Card drawMaxScoreCard(Suit selectedSuit) {
-		Card maxCard = null;
+		if (isIndexedBy(selectedSuit)) {
+			return drawIndexedCard(scoreIndex.highest());
+		}
+		
+		int maxIndex = -1;
 		int maxValue = 0;
+		int i = 0;
 		
 		for(Card card : cards) {
 			int cardValue = card.getCardType().getCardValue();
@@ -120,20 +257,25 @@ public class CardCollection implements Serializable {
 				cardValue *= 2;
 			
 			if (cardValue > maxValue) {
-				maxCard = card;
+				maxIndex = i;
 				maxValue = cardValue;
 			}
+			++i;
 		}
-		cards.remove(maxCard);
-		return maxCard;
+		return maxIndex == -1 ? null : removeValue(cards.removeAt(maxIndex));
 	}
 	
 	/*
 	 * Removes the lowest score card from the collection and returns it.
 	 */
 	public Card drawMinScoreCard(Suit selectedSuit) {
-		Card minCard = null;
+		if (isIndexedBy(selectedSuit)) {
+			return drawIndexedCard(scoreIndex.lowest());
+		}
+		
+		int minIndex = -1;
 		int minValue = 30;
+		int i = 0;
 		
 		for(Card card : cards) {
 			int cardValue = card.getCardType().getCardValue();
@@ -142,19 +284,39 @@ public class CardCollection implements Serializable {
 				cardValue *= 2;
 			
 			if (cardValue < minValue) {
-				minCard = card;
+				minIndex = i;
 				minValue = cardValue;
 			}
+			++i;
 		}
-		cards.remove(minCard);
-		return minCard;
+		return minIndex == -1 ? null : removeValue(cards.removeAt(minIndex));
+	}
+	
+	/*
+	 * Removes the given number of highest score cards from the collection and returns them. 
+	 * The cards are found and removed in a single pass.
+	 */
+	public CardCollection drawHighestScoreCards(int numOfCards, Suit selectedSuit) {
+		return drawCards(getScoreIndex(selectedSuit).highest(numOfCards));
+	}
+	
+	/*
+	 * Removes the given number of lowest score cards from the collection and returns them. 
+	 * The cards are found and removed in a single pass.
+	 */
+	public CardCollection drawLowestScoreCards(int numOfCards, Suit selectedSuit) {
+		return drawCards(getScoreIndex(selectedSuit).lowest(numOfCards));
 	}
 	
 	/*
 	 * Removes the passed card from the collection.
 	 */
 	public Boolean removeCard(Card card) {
-		return cards.remove(card);
+		if (cards.remove(card)) {
+			removeValue(card);
+			return true;
+		}
+		return false;
 	}
 	
 	public Boolean removeCards(CardCollection aCollec) {
@@ -172,8 +334,9 @@ public class CardCollection implements Serializable {
 	}
 	
 	/*
-	 * Returns an iterator for the ArrayList of Cards in the collection.
+	 * Returns an iterator for the Cards in the collection.
 	 */
+	@Override
 	public Iterator<Card> iterator() {
 		return cards.iterator();
 	}
@@ -193,14 +356,35 @@ public class CardCollection implements Serializable {
 
 	/*
 	 * Sorts the hand according to suit and card value. Sorting criteria specified in 
-	 * the assignment file.
+	 * the assignment file. Collections with SORTED storage are always sorted, so this does nothing.
 	 */
 	public void sort() {
-		Collections.sort(cards, new CardComparator());
+		cards.sort();
+	}
+	
+	/*
+	 * Returns the score of the collection, which is the sum of the values of all its cards with the
+	 * values of the selected suit's cards counted twice. Runs in O(1) as the sums are kept up to date
+	 * on every add and remove.
+	 */
+	public int score(Suit selectedSuit) {
+		return totalValue + suitValues[selectedSuit.ordinal()];
+	}
+	
+	/*
+	 * Returns the sum of the values of all the cards of the given suit in the collection.
+	 */
+	public int getSuitValue(Suit suit) {
+		return suitValues[suit.ordinal()];
 	}
 	
 	public void clear() {
 		cards.clear();
+		totalValue = 0;
+		Arrays.fill(suitValues, 0);
+		
+		if (scoreIndex != null) 
+			scoreIndex.clear();
 	}
 	
 	public int size() {
@@ -208,7 +392,7 @@ public class CardCollection implements Serializable {
 	}
 	
 	public Boolean isEmpty() {
-		return cards.isEmpty();
+		return cards.size() == 0;
 	}
 	
 	
@@ -219,14 +403,126 @@ public class CardCollection implements Serializable {
 	 * Add a standard 52 card deck to the card collection.
 	 */
 	private void addDeck() {
-		Deck defaultDeck = new Deck();
-		Iterator<Card> iter = defaultDeck.iterator();
+		// The canonical cards are added in one go rather than building a new Deck each time.
+		cards.addAll(Card.standardDeck());
 		
-		while(iter.hasNext()) {
-			cards.add(iter.next());
+		totalValue += Deck.DECK_VALUE;
+		for (int i = 0; i < suitValues.length; ++i) {
+			suitValues[i] += Deck.SUIT_VALUE;
+		}
+		if (scoreIndex != null) {
+			for (Card card : Card.standardDeck()) {
+				scoreIndex.addCard(card);
+			}
+		}
+	}
+	
+	private void addValue(Card card) {
+		int value = card.getCardType().getCardValue();
+		totalValue += value;
+		suitValues[card.getSuit().ordinal()] += value;
+		
+		if (scoreIndex != null) 
+			scoreIndex.addCard(card);
+	}
+	
+	/*
+	 * Subtracts the value of the removed card from the running sums and returns the card.
+	 */
+	private Card removeValue(Card card) {
+		int value = card.getCardType().getCardValue();
+		totalValue -= value;
+		suitValues[card.getSuit().ordinal()] -= value;
+		
+		if (scoreIndex != null) 
+			scoreIndex.removeCard(card);
+		return card;
+	}
+	
+	private Boolean isIndexedBy(Suit selectedSuit) {
+		return scoreIndex != null && scoreIndex.getSelectedSuit() == selectedSuit;
+	}
+	
+	/*
+	 * Returns the score index kept for the selected suit, or builds a temporary one if the collection
+	 * isn't indexed by that suit.
+	 */
+	private CardScoreIndex getScoreIndex(Suit selectedSuit) {
+		return isIndexedBy(selectedSuit) ? scoreIndex : createScoreIndex(selectedSuit);
+	}
+	
+	/*
+	 * Sorted stores already hold a count of each card, which is quicker to index than their cards one by one.
+	 */
+	private CardScoreIndex createScoreIndex(Suit selectedSuit) {
+		if (cards instanceof SortedCardStore)
+			return new CardScoreIndex(selectedSuit, ((SortedCardStore) cards).getMultiset());
+		
+		return new CardScoreIndex(selectedSuit, cards);
+	}
+	
+	/*
+	 * Removes a card found through the score index from the collection.
+	 */
+	private Card drawIndexedCard(Card card) {
+		if (card == null)
+			return null;
+		
+		cards.remove(card);
+		return removeValue(card);
+	}
+	
+	/*
+	 * Removes the passed cards, which must all be in the collection, with a single pass over the store
+	 * and returns them in a new collection. Only collections that are shared between threads need their
+	 * drawn cards to be copy on write, the rest return them in a byte array.
+	 */
+	private CardCollection drawCards(List<Card> toDraw) {
+		if (cards.getStorage() == CardStorage.SORTED) {
+			// Removing a card from a sorted store is O(1), so there is no need to count them first
+			for (Card card : toDraw) {
+				cards.remove(card);
+			}
+		}
+		else {
+			int[] counts = new int[Card.NUM_OF_CARDS];
+			for (Card card : toDraw) {
+				counts[card.getOrdinal()]++;
+			}
+			cards.removeCounts(counts);
+		}
+		
+		for (Card card : toDraw) {
+			removeValue(card);
+		}
+		
+		CardStorage drawnStorage = (cards.getStorage() == CardStorage.COPY_ON_WRITE) ? CardStorage.COPY_ON_WRITE : CardStorage.BYTE_ARRAY;
+		CardCollection drawn = new CardCollection(drawnStorage);
+		drawn.addCards(toDraw);
+		return drawn;
+	}
+	
+	private static CardStore createStore(CardStorage storage) {
+		switch (storage) {
+			case BYTE_ARRAY:
+				return new ByteArrayCardStore();
+			case SORTED:
+				return new SortedCardStore();
+			case COPY_ON_WRITE:
+				return new CopyOnWriteCardStore();
+			default:
+				throw new IllegalArgumentException("Unknown card storage: " + storage);
 		}
 	}
 
+	/*
+	 * Sorted stores keep their cards in display order, so their order cannot be randomised.
+	 */
+	private void checkShufflable() {
+		if (cards.getStorage() == CardStorage.SORTED)
+			throw new IllegalStateException("Sorted card collections cannot be shuffled");
+	}
+	
 	/*
 	 * Throws an exception if adding the passed number of cards exceeds the total card limit
 	 * of the CardCollection.
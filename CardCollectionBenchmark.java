@@ -0,0 +1,110 @@
+/*
+ * Compares the CardCollection storages on the operations performed during a game. Dealing builds a
+ * pile of the given number of decks, shuffles it and deals it out to four hands. A turn sorts a hand,
+ * dumps five cards into the pile, then draws five cards back from a copy of the pile and removes them
+ * from the pile.
+ *
+ * Usage: java CardCollectionBenchmark [iterations]
+ */
+public class CardCollectionBenchmark {
+
+	private static final int NUM_OF_PLAYERS = 4;
+	private static final int DEFAULT_ITERATIONS = 20000;
+	
+	// Written to so that the JIT cannot eliminate the benchmarked work
+	private static long sink = 0;
+	
+	
+	// ______________MAIN______________
+	
+	public static void main(String[] args) {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+		
+		System.out.printf("%-8s %-14s %14s %14s%n", "Decks", "Storage", "Deal (ns/op)", "Turn (ns/op)");
+		for (int decks = 1; decks <= 4; ++decks) {
+			for (CardStorage storage : CardStorage.values()) {
+				// Warm up before measuring
+				benchmarkDeal(decks, storage, iterations);
+				benchmarkTurn(decks, storage, iterations);
+				
+				double deal = benchmarkDeal(decks, storage, iterations);
+				double turn = benchmarkTurn(decks, storage, iterations);
+				System.out.printf("%-8d %-14s %14.0f %14.0f%n", decks, storage, deal, turn);
+			}
+		}
+		if (sink == 42) 
+			System.out.println();
+	}
+	
+	
+	// ______________PRIVATE______________
+	
+	private static double benchmarkDeal(int numOfDecks, CardStorage storage, int iterations) {
+		long start = System.nanoTime();
+		
+		for (int i = 0; i < iterations; ++i) {
+			CardCollection pile = new CardCollection(pileStorage(storage));
+			pile.addDecks(numOfDecks);
+			pile.shuffle();
+			
+			CardCollection[] hands = newHands(storage);
+			while (!pile.isEmpty()) {
+				for (int j = 0; j < NUM_OF_PLAYERS && !pile.isEmpty(); ++j) {
+					hands[j].addCard(pile.drawRandomCard());
+				}
+			}
+			sink += hands[0].size();
+		}
+		return (System.nanoTime() - start) / (double) iterations;
+	}
+	
+	private static double benchmarkTurn(int numOfDecks, CardStorage storage, int iterations) {
+		CardCollection pile = new CardCollection(pileStorage(storage));
+		pile.addDecks(numOfDecks);
+		pile.shuffle();
+		
+		CardCollection[] hands = newHands(storage);
+		for (int j = 0; !pile.isEmpty(); j = (j + 1) % NUM_OF_PLAYERS) {
+			hands[j].addCard(pile.drawRandomCard());
+		}
+		
+		long start = System.nanoTime();
+		
+		for (int i = 0; i < iterations; ++i) {
+			CardCollection hand = hands[i % NUM_OF_PLAYERS];
+			hand.sort();
+			
+			CardCollection dumped = new CardCollection(storage);
+			for (int j = 0; j < 5; ++j) {
+				dumped.addCard(hand.drawMinScoreCard(Suit.HEARTS));
+			}
+			pile.addCardCollection(dumped);
+			
+			CardCollection pileCopy = new CardCollection(pile, storage);
+			CardCollection drawn = new CardCollection(storage);
+			for (int j = 0; j < 5; ++j) {
+				drawn.addCard(pileCopy.drawMaxScoreCard(Suit.HEARTS));
+			}
+			pile.removeCards(drawn);
+			hand.addCardCollection(drawn);
+			
+			sink += pile.size();
+		}
+		return (System.nanoTime() - start) / (double) iterations;
+	}
+	
+	/*
+	 * Sorted collections cannot be shuffled, so piles use the byte array storage when hands are sorted.
+	 */
+	private static CardStorage pileStorage(CardStorage storage) {
+		return storage == CardStorage.SORTED ? CardStorage.BYTE_ARRAY : storage;
+	}
+	
+	private static CardCollection[] newHands(CardStorage storage) {
+		CardCollection[] hands = new CardCollection[NUM_OF_PLAYERS];
+		for (int j = 0; j < NUM_OF_PLAYERS; ++j) {
+			hands[j] = new CardCollection(storage);
+		}
+		return hands;
+	}
+}
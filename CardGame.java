@@ -1,31 +1,42 @@
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.net.Socket;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Scanner;
-import java.util.concurrent.CyclicBarrier;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadFactory;
 
 public class CardGame {
 	
 	private int numOfDecks;
 	private int numOfPlayers;
 	private int numOfDeals;
+	private GameRules rules = GameRules.STANDARD;		// Number of rounds and the cards exchanged in each
 	private CardCollection pile;
-	private CyclicBarrier barrier;
+	private CardMultiset openPile;			// Pile that players dump cards into and draw cards from during their turns.
+	private TableContext table;				// State shared by the player threads of this game
 	private GameLogger logger;
+	private GameJournal journal = null;		// Only set if the game is journaled instead of logged as text
 	private ArrayList<PlayerThread> players;
 	private PlayerThread firstPlayer;
 	private PlayerThread winner = null;
 	private Suit selectedSuit;
 	private Thread[] playerThreads; 
 	private Boolean isTied;
+	private GameResult result = null;
+	private WinProbabilityEstimator winEstimator = null;		// Only set if win probabilities should be logged
+	private Boolean verifyHands = false;
+	private Boolean logPileDeltas = false;
+	private ThreadFactory threadFactory = GameThreads.platform();		// Creates the player and dealer threads
+	private GameMetrics metrics = GameMetrics.DISABLED;
+	private long seed;
+	private SplittableRandom random;		// All of the game's random choices are made with this, so a game can be replayed from its seed
 	
-	private final int DECK_LIMIT = 4;
+	static final int DECK_LIMIT = 4;
+	static final String DEFAULT_LOG_FILE = "logfile.txt";
 	
 	
 	// ______________PUBLIC______________
@@ -35,27 +46,77 @@ public class CardGame {
 	 * the start file passed as the argument.
 	 */
 	public CardGame(String startFile) throws FileNotFoundException {
-		setGameParameters(startFile);
+		this(startFile, new SplittableRandom().nextLong());
+	}
+	
+	/*
+	 * Same as above but the game's random number generator is created with the given seed. The seed is
+	 * logged, and passing it again along with the same start file and player names replays the same game.
+	 */
+	public CardGame(String startFile, long seed) throws FileNotFoundException {
+		this(startFile, seed, DEFAULT_LOG_FILE);
+	}
+	
+	/*
+	 * Same as above but the game is logged to the given file, so that several games can be played at the
+	 * same time without overwriting each other's logs.
+	 */
+	public CardGame(String startFile, long seed, String logFileName) throws FileNotFoundException {
+		this(startFile, seed, logFileName, LogMode.SYNCHRONOUS);
+	}
+	
+	/*
+	 * Same as above but the log is written in the given mode. The asynchronous modes take disk writes off 
+	 * the game and player threads.
+	 */
+	public CardGame(String startFile, long seed, String logFileName, LogMode logMode) throws FileNotFoundException {
+		this(startFile, seed, logFileName, logMode, LogRotation.NONE);
+	}
+	
+	/*
+	 * Same as above but the log is split into segments, compressed and expired as the rotation says.
+	 */
+	public CardGame(String startFile, long seed, String logFileName, LogMode logMode, LogRotation logRotation) 
+			throws FileNotFoundException {
+		this.seed = seed;
+		this.random = new SplittableRandom(seed);
+		setGameParameters(startFile, logFileName, logMode, logRotation);
 	}
 	
 	/*
 	 * Runs the whole game.
 	 */
 	public void run() throws InterruptedException {		
+		long gameStart = metrics.startTimer();
+		long phaseStart;
+		
 		logger.logHeading("GAME PARAMETERS");
 		logger.addNewLine();
 		logger.log("--Number of decks: " + numOfDecks);
 		logger.log("--Number of players: " + numOfPlayers);
+		logger.log("--Seed: " + seed);
+		if (!rules.isStandard()) {
+			logger.log("--Rounds (dumped/drawn): " + rules);
+		}
+		if (journal != null) {
+			journal.recordGame(numOfDecks, numOfPlayers, seed, rules);
+		}
 			
 		// Request Player objects to obtain their player's name over their corresponding 
 		// sockets and set it.
+		phaseStart = metrics.startTimer();
 		try {
 			setPlayerNames();
+			sendSeedsToClients();
+			metrics.recordPhase(GamePhase.SET_PLAYER_NAMES, phaseStart);
 			logger.log("\n--PLAYER NAMES:");
 			for(PlayerThread player : players) {
 				System.out.println("Connected with client of " + player.getPlayerName());
 				logger.log("----" + player.getPlayerName());
 			}
+			if (journal != null) {
+				journal.recordPlayers(players.stream().map(PlayerThread::getPlayerName).toList());
+			}
 		} 
 		catch (ClassNotFoundException | IOException e) {
 			System.err.println("Error setting player names!");
@@ -63,12 +124,19 @@ public class CardGame {
 		} 
 		
 		// Determine the first player. Also log the card distribution that leads to the winner.
+		phaseStart = metrics.startTimer();
 		determineFirstPlayer();
+		metrics.recordPhase(GamePhase.DETERMINE_FIRST_PLAYER, phaseStart);
 		
 		// Request the first player to select a suit.
+		phaseStart = metrics.startTimer();
 		try {
 			selectWinningSuit();
+			metrics.recordPhase(GamePhase.SELECT_SUIT, phaseStart);
 			logger.log("--SELECTED SUIT: " + selectedSuit + "\n");
+			if (journal != null) {
+				journal.recordSuit(selectedSuit);
+			}
 		} 
 		catch (ClassNotFoundException | IOException e) {
 			System.err.println("Error during suit selection from first player!");
@@ -85,6 +153,7 @@ public class CardGame {
 	
 		setPlayerParameters();
 		
+		phaseStart = metrics.startTimer();
 		try {
 			// Send selected suit to clients
 			sendInfoToClients();
@@ -95,20 +164,26 @@ public class CardGame {
 		
 		try {
 			dealCards();
+			metrics.recordPhase(GamePhase.DEAL_CARDS, phaseStart);
 		} 
 		catch (IOException e) {
 			System.err.println("Error dealing cards!");
 			e.printStackTrace();
 		}
 		
+		if (journal != null) {
+			journalDeal();
+		}
 		logger.logHeading("INITIAL HANDS");
 		logger.addNewLine();
-		try {
-			logPlayerHands();
-		} 
-		catch (ClassNotFoundException | IOException e) {
-			System.err.println("Error logging initial player hands");
-			e.printStackTrace();
+		phaseStart = metrics.startTimer();
+		logPlayerHands();
+		metrics.recordPhase(GamePhase.LOG_HANDS, phaseStart);
+		
+		if (winEstimator != null) {
+			// Split off only once the cards are dealt, so that estimating doesn't change how the game is played
+			table.setRolloutRandom(random.split());
+			logWinEstimates();
 		}
 		
 		// Player threads coordinate their turns between themselves. The game only spawns
@@ -117,30 +192,27 @@ public class CardGame {
 		// independently.
 		spawnPlayerThreads();
 		
-		// Wait for player threads to complete both their turns
+		// Wait for player threads to complete all their turns
 		for (int i = 0; i < players.size(); ++i) {
 			playerThreads[i].join();
 		}
 		
+		// Hands are read from the server's copies, so no more traffic is needed until the results are sent
 		logger.logHeading("FINAL HANDS");
 		logger.addNewLine();
-		try {
-			logPlayerHands();
-		} 
-		catch (ClassNotFoundException | IOException e) {
-			System.err.println("Error logging final player hands!");
-			e.printStackTrace();
-		}
+		phaseStart = metrics.startTimer();
+		logPlayerHands();
+		metrics.recordPhase(GamePhase.LOG_HANDS, phaseStart);
 		
-		try {
-			determineWinner();
-		} 
-		catch (ClassNotFoundException | IOException e) {
-			System.err.println("Error determining winner of the game!");		
-			e.printStackTrace();
-		}
+		phaseStart = metrics.startTimer();
+		determineWinner();
+		metrics.recordPhase(GamePhase.DETERMINE_WINNER, phaseStart);
 		closeClientConnections();
+		metrics.recordGame(gameStart);
 		logger.close();
+		if (journal != null) {
+			journal.close();
+		}
 	}
 		
 	/*
@@ -153,6 +225,62 @@ public class CardGame {
 			return winner.getPlayerName();
 	}
 	
+	/*
+	 * Returns the result of the game, or null if the game has not finished yet.
+	 */
+	public GameResult getResult() {
+		return result;
+	}
+	
+	/*
+	 * Enables logging of each player's estimated win probability after the cards are dealt and
+	 * after each turn. Must be called before the game is run.
+	 */
+	public void setWinEstimator(WinProbabilityEstimator winEstimator) {
+		this.winEstimator = winEstimator;
+	}
+	
+	/*
+	 * Enables checking every player's hand as reported by their client against the server's copy
+	 * on each turn. Hands are always scored from the server's copies. Must be called before the 
+	 * game is run.
+	 */
+	public void setHandVerification(Boolean verifyHands) {
+		this.verifyHands = verifyHands;
+	}
+	
+	/*
+	 * Enables logging the pile in full only once per round. Every other time the pile is logged, only the
+	 * cards added to or removed from it are, along with its version. PileDeltaTool expands such a log back
+	 * into one that lists the whole pile every time. Must be called before the game is run.
+	 */
+	public void setPileDeltaLogging(Boolean logPileDeltas) {
+		this.logPileDeltas = logPileDeltas;
+	}
+	
+	/*
+	 * Sets the factory that the player threads are created with, e.g. GameThreads.create(true) to play
+	 * on virtual threads. Must be called before the game is run.
+	 */
+	public void setThreadFactory(ThreadFactory threadFactory) {
+		if (threadFactory == null)
+			throw new IllegalArgumentException("Thread factory cannot be null");
+		
+		this.threadFactory = threadFactory;
+	}
+	
+	/*
+	 * Sets the metrics that the game's phases and its traffic with the clients are measured by. Must be
+	 * called before any player is added.
+	 */
+	public void setMetrics(GameMetrics metrics) {
+		if (metrics == null)
+			throw new IllegalArgumentException("Metrics cannot be null, use GameMetrics.DISABLED instead");
+		
+		this.metrics = metrics;
+		table.setMetrics(metrics);
+	}
+	
 	/*
 	 * Returns the number of decks being used for the game.
 	 */
@@ -169,24 +297,30 @@ public class CardGame {
 
 	/*
 	 * Add a new player and its store its socket which is passed by the server.
-	 * Create Object streams using the socket and pass them to the Player object
-	 * so that player threads can use these streams to communication with their
-	 * corresponding client. The player object is not sent the socket because
-	 * it is not possible to open and close streams multiple times.
+	 * The wire format is negotiated with the client and a GameStream is created 
+	 * for the socket and passed to the Player object so that player threads can 
+	 * use it to communicate with their corresponding client. The player object 
+	 * is not sent the socket because it is not possible to open and close streams
+	 * multiple times.
 	 */
 	public void addPlayer(Socket playerSocket) {
-		ObjectOutputStream out = null;
-		ObjectInputStream in = null;
+		GameStream stream = null;
 		
     	try {
-			out = new ObjectOutputStream(playerSocket.getOutputStream());
-			in = new ObjectInputStream(playerSocket.getInputStream());
+			stream = WireProtocol.accept(playerSocket);
 		}
     	catch (IOException e) {
-			System.err.println("Failed to open object stream with client!");
+			System.err.println("Failed to open stream with client!");
 			e.printStackTrace();
 		}		
-		players.add(new PlayerThread(out, in));
+		addPlayer(stream);
+	}
+	
+	/*
+	 * Same as above but for a client whose wire format has already been negotiated.
+	 */
+	public void addPlayer(GameStream stream) {
+		players.add(new PlayerThread(stream, table));
 	}
 	
 	
@@ -225,10 +359,20 @@ public class CardGame {
 		}
 	}
 	
+	/*
+	 * Sends every client a seed derived from the game's seed, which the client uses for its own random choices.
+	 */
+	private void sendSeedsToClients() throws IOException {
+		for(PlayerThread player : players) {
+			player.sendSeed(random.nextLong());
+		}
+	}
+	
 	/*
 	 * Parses and sets the game parameters from the String returned by getGameParameters.
 	 */
-	private void setGameParameters(String filename) throws FileNotFoundException {
+	private void setGameParameters(String filename, String logFileName, LogMode logMode, LogRotation logRotation) 
+			throws FileNotFoundException {
 		String gameInputs = getGameParameters(filename);
 		
 		// Tokenise the string containing game parameters.
@@ -250,14 +394,60 @@ public class CardGame {
 		if (numOfPlayers < 2 || numOfPlayers > 4) 
 			throw new InvalidGameParameterException("Invalid number of players in the start file!");
 		
+		if (tokens.length > 2) {
+			rules = parseRules(Arrays.copyOfRange(tokens, 2, tokens.length));
+		}
+		rules.checkHandSize(numOfDeals);
+		
 		players = new ArrayList<>(numOfPlayers);
 		
-		// DECK_LIMIT indicates the maximum number of decks that can be in the pile
-		pile = new CardCollection(numOfDecks, DECK_LIMIT);	
-		pile.shuffle();
+		// DECK_LIMIT indicates the maximum number of decks that can be in the pile. The pile is only
+		// modified by the game thread before the player threads start and by player threads during their 
+		// turns, so it does not need copy on write storage.
+		pile = new CardCollection(numOfDecks, DECK_LIMIT, CardStorage.BYTE_ARRAY);	
+		pile.shuffle(random);
+			
+		// The order of cards in the open pile doesn't matter so it is kept as a count of each card.
+		openPile = new CardMultiset();
+			
+		logger = new GameLogger(logFileName, logMode, logRotation);
+		if (logMode == LogMode.JOURNAL) {
+			journal = new GameJournal(toJournalFileName(logFileName));
+		}
+		table = new TableContext(numOfDecks, numOfPlayers, openPile, logger, journal);
+		table.setRules(rules);
+	}
+	
+	/*
+	 * Journals are named after the log file that they replace, e.g. logfile-3.journal for logfile-3.txt.
+	 */
+	private static String toJournalFileName(String logFileName) {
+		int extension = logFileName.lastIndexOf('.');
+		return ((extension > 0) ? logFileName.substring(0, extension) : logFileName) + ".journal";
+	}
+	
+	/*
+	 * Parses the optional rounds at the end of the start file. Each round is given as "dumped/drawn", e.g.
+	 * "5/0, 2/2" for the standard game.
+	 */
+	private GameRules parseRules(String[] rounds) {
+		int[] cardsDumped = new int[rounds.length];
+		int[] cardsDrawn = new int[rounds.length];
+		
+		for (int i = 0; i < rounds.length; ++i) {
+			String[] cards = rounds[i].split("/");
+			if (cards.length != 2) 
+				throw new InvalidGameParameterException("Invalid round in the start file: " + rounds[i]);
 			
-		barrier = new CyclicBarrier(numOfPlayers);
-		logger = new GameLogger("logfile.txt");
+			try {
+				cardsDumped[i] = Integer.parseInt(cards[0].trim());
+				cardsDrawn[i] = Integer.parseInt(cards[1].trim());
+			}
+			catch (NumberFormatException e) {
+				throw new InvalidGameParameterException("Invalid round in the start file: " + rounds[i]);
+			}
+		}
+		return new GameRules(cardsDumped, cardsDrawn);
 	}
 		
 	/*
@@ -286,8 +476,11 @@ public class CardGame {
 		for (int i = 0; i < numOfDeals; ++i) {
 			for (int j = 0; j < numOfPlayers; ++j) {
 				
-				Card drawnCard = pile.drawRandomCard();
+				Card drawnCard = pile.drawTop();
 				logger.log("----" + drawnCard.getName() + " dealt to " + players.get(j).getPlayerName());
+				if (journal != null) {
+					journal.recordFirstPlayerDraw(drawnCard, j);
+				}
 				
 				if (drawnCard.getCardType() == CardType.JACK) { 
 					firstPlayer = players.get(j);	
@@ -322,12 +515,14 @@ public class CardGame {
 	}
 	
 	/*
-	 * Pass Player class some important parameters so that the player threads can play the game independently.
+	 * Pass the player threads some important parameters through the table so that they can play the game 
+	 * independently.
 	 */
 	private void setPlayerParameters() {
-		PlayerThread.setLogger(logger);
-		PlayerThread.setPile(pile);
-		PlayerThread.setBarrier(barrier);
+		table.setSelectedSuit(selectedSuit);
+		table.setWinEstimator(winEstimator);
+		table.setVerifyHands(verifyHands);
+		table.setLogPileDeltas(logPileDeltas);
 	}
 	
 	/*
@@ -345,22 +540,69 @@ public class CardGame {
 		// Reset pile before dealing
 		pile.clear();
 		pile.addDecks(numOfDecks);
-		pile.shuffle();
 		
-		// Deal cards one by one to all players
-		for (int i = 0; i < numOfDeals; ++i) {
-			for (int j = 0; j < numOfPlayers; ++j) {
-				
-				Card drawnCard = pile.drawRandomCard();
-				players.get(j).pickupCard(drawnCard);
-			}	
-		}	
+		// Shuffle the pile once and split it into the players' hands
+		CardCollection[] hands = pile.deal(numOfPlayers, numOfDeals, CardStorage.BYTE_ARRAY, random);
+		
+		sendHands(hands);
+		
+		// Cards that could not be dealt out equally stay in the pile that players dump into
+		openPile.clear();
+		openPile.addCardCollection(pile);
+	}
+	
+	/*
+	 * Sends every player their dealt hand as a single message. The hands are written to all
+	 * the clients at the same time so dealing takes about as long as the slowest client
+	 * rather than one write per card.
+	 */
+	private void sendHands(CardCollection[] hands) throws IOException {
+		Thread[] dealers = new Thread[numOfPlayers];
+		IOException[] failures = new IOException[numOfPlayers];
+		
+		for (int i = 0; i < numOfPlayers; ++i) {
+			final int seat = i;
+			dealers[i] = threadFactory.newThread(() -> {
+				try {
+					players.get(seat).pickupHand(hands[seat]);
+				}
+				catch (IOException e) {
+					failures[seat] = e;
+				}
+			});
+			dealers[i].start();
+		}
+		
+		try {
+			for (Thread dealer : dealers) {
+				dealer.join();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while dealing the hands", e);
+		}
+		
+		for (IOException failure : failures) {
+			if (failure != null)
+				throw failure;
+		}
+	}
+	
+	/*
+	 * Records the dealt hands in the journal, followed by the cards left in the open pile.
+	 */
+	private void journalDeal() {
+		for (int i = 0; i < numOfPlayers; ++i) {
+			journal.recordDeal(i, players.get(i).getHand());
+		}
+		journal.recordOpenPile(openPile);
 	}
 	
 	/*
 	 * Log all the cards in the current hand of all players.
 	 */
-	private void logPlayerHands() throws ClassNotFoundException, IOException {
+	private void logPlayerHands() {
 		for (PlayerThread player : players) {
 			logger.log("--" + player.getPlayerName() + "'s hand " + "(" + player.getHandSize() + ")"+ ":");
 			logger.logCards(player.getHand());
@@ -368,6 +610,24 @@ public class CardGame {
 		}
 	}
 
+	/*
+	 * Log the estimated win probability of every player based on their dealt hand.
+	 */
+	private void logWinEstimates() {
+		logger.logHeading("WIN ESTIMATES");
+		logger.addNewLine();
+		for (PlayerThread player : players) {
+			GameSnapshot snapshot = new GameSnapshot(numOfDecks, numOfPlayers, rules, player.getTurn() - 1, 0, 
+													 selectedSuit, player.getHand(), openPile);
+			WinEstimate estimate = winEstimator.estimate(snapshot, table.nextRolloutRandom());
+			logger.log("--" + player.getPlayerName() + "'s estimated win probability: " + estimate);
+			if (journal != null) {
+				journal.recordWinEstimate(player.getTurn() - 1, estimate);
+			}
+		}
+		logger.addNewLine();
+	}
+	
 	/*
 	 * Create player threads that will play the game independently.
 	 */
@@ -375,7 +635,7 @@ public class CardGame {
 		playerThreads = new Thread[numOfPlayers];	
 		
 		for (int i = 0; i < players.size(); ++i) {
-			Thread playerThread = new Thread(players.get(i));
+			Thread playerThread = threadFactory.newThread(players.get(i));
 			playerThread.start();
 			playerThreads[i] = playerThread;
 		}
@@ -385,24 +645,37 @@ public class CardGame {
 	 * Determine the winner of the game by calculating the scores of each player. Also checks whether
 	 * the game has been tied in case no winner is found.
 	 */
-	private void determineWinner() throws ClassNotFoundException, IOException {
-		int maxScore = 0;
-		isTied = false;
+	private void determineWinner() {
+		List<String> names = new ArrayList<>(numOfPlayers);
+		int[] scores = new int[numOfPlayers];
 			
 		logger.logHeading("PLAYER SCORES");
 		logger.addNewLine();
-		for(PlayerThread player : players) {
-			int score = calculateHandScore(player.getHand());
-			
-			if (score > maxScore) {
-				maxScore = score;
-				winner = player;
+		for (int i = 0; i < numOfPlayers; ++i) {
+			PlayerThread player = players.get(i);
+			names.add(player.getPlayerName());
+			if (player.hasLeftGame()) {
+				// Players that left can never win, whatever their hand is worth
+				scores[i] = GameResult.NOT_SCORED;
+				logger.log("----" + player.getPlayerName() + " left the game and is not scored");
 			}
-			else if (score == maxScore) {
-				isTied = true;
+			else {
+				scores[i] = calculateHandScore(player.getHand());
+				logger.log("----" + player.getPlayerName() + "'s score is " + scores[i]);
 			}
-			logger.log("----" + player.getPlayerName() + "'s score is " + score);
+			if (journal != null) {
+				journal.recordScore(i, scores[i]);
+			}
+		}
+		
+		// GameResult applies the same rules as HeadlessCardGame
+		result = new GameResult(seed, selectedSuit, names, scores);
+		isTied = result.isTied();
+		winner = isTied ? null : players.get(result.getWinnerIndex());
+		if (journal != null) {
+			journal.recordResult(result.getWinnerIndex());
 		}
+		
 		if (!isTied) {
 			logger.log("\n--WINNER: " + winner.getPlayerName());
 			System.out.println("\nWinner of the game is " + winner.getPlayerName());
@@ -414,26 +687,11 @@ public class CardGame {
 	}
 	
 	/*
-	 * Returns the score of a card.
-	 */
-	private int getCardScore(Card card) {
-		if (card.getSuit() != selectedSuit) 
-			return card.getCardType().getCardValue();	
-		else 
-			return (2 * card.getCardType().getCardValue());
-	}
-
-	/*
-	 * Returns the total score of a players hand.
+	 * Returns the total score of a players hand. CardCollection keeps running per suit sums of its
+	 * card values, so this doesn't need to iterate over the hand.
 	 */
 	private int calculateHandScore(CardCollection hand) {
-		int totalScore = 0;
-		Iterator<Card> iter = hand.iterator();
-		
-		while(iter.hasNext()) {
-			totalScore +=  getCardScore(iter.next());
-		}
-		return totalScore;
+		return hand.score(selectedSuit);
 	}
 	
 }
@@ -0,0 +1,222 @@
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/*
+ * An unordered collection of cards stored as a count of each of the 52 cards. With multiple decks
+ * a collection can hold several copies of the same card, which this represents as a count greater
+ * than one. Adding, removing and checking for a card is O(1), and checking for or removing a whole
+ * multiset is O(52) regardless of how many cards are involved.
+ * 
+ * Should be used instead of a CardCollection wherever the order of the cards does not matter. Iterating
+ * over a multiset returns the cards sorted by suit and card value. This class is not thread safe.
+ */
+
+public class CardMultiset implements Serializable, Iterable<Card> {
+
+	private static final long serialVersionUID = 8812L;
+	
+	private int[] counts = new int[Card.NUM_OF_CARDS];
+	private int size = 0;
+	private transient int modCount = 0;		// Used by iterators to detect modification during iteration.
+	
+	
+	// ______________PUBLIC______________
+	
+	
+	// __Constructors__
+	
+	public CardMultiset() {}
+	
+	public CardMultiset(CardCollection aCollec) {
+		addCardCollection(aCollec);
+	}
+	
+	public CardMultiset(CardMultiset aMultiset) {
+		addMultiset(aMultiset);
+	}
+	
+	
+	// __Methods__
+	
+	public void addCard(Card card) {
+		counts[card.getOrdinal()]++;
+		size++;
+		modCount++;
+	}
+	
+	public void addCardCollection(CardCollection aCollec) {
+		Iterator<Card> iter = aCollec.iterator();
+		
+		while (iter.hasNext()) {
+			counts[iter.next().getOrdinal()]++;
+		}
+		size += aCollec.size();
+		modCount++;
+	}
+	
+	public void addMultiset(CardMultiset aMultiset) {
+		for (int i = 0; i < Card.NUM_OF_CARDS; ++i) {
+			counts[i] += aMultiset.counts[i];
+		}
+		size += aMultiset.size;
+		modCount++;
+	}
+	
+	/*
+	 * Removes a single copy of the passed card. Returns false if the multiset doesn't contain the card.
+	 */
+	public Boolean removeCard(Card card) {
+		int ordinal = card.getOrdinal();
+		
+		if (counts[ordinal] == 0)
+			return false;
+		
+		counts[ordinal]--;
+		size--;
+		modCount++;
+		return true;
+	}
+	
+	/*
+	 * Removes all the cards in the passed collection if every one of them is present in the multiset.
+	 * Otherwise the multiset is left unchanged and false is returned.
+	 */
+	public Boolean removeCards(CardCollection aCollec) {
+		Iterator<Card> iter = aCollec.iterator();
+		int removed = 0;
+		
+		while (iter.hasNext()) {
+			int ordinal = iter.next().getOrdinal();
+			
+			if (counts[ordinal] == 0) {
+				// Put back the cards that have already been removed
+				Iterator<Card> undo = aCollec.iterator();
+				for (int i = 0; i < removed; ++i) {
+					counts[undo.next().getOrdinal()]++;
+				}
+				return false;
+			}
+			counts[ordinal]--;
+			removed++;
+		}
+		size -= removed;
+		modCount++;
+		return true;
+	}
+	
+	/*
+	 * Removes all the cards in the passed multiset if every one of them is present in this multiset.
+	 * Otherwise the multiset is left unchanged and false is returned.
+	 */
+	public Boolean removeCards(CardMultiset aMultiset) {
+		if (!hasCards(aMultiset))
+			return false;
+		
+		for (int i = 0; i < Card.NUM_OF_CARDS; ++i) {
+			counts[i] -= aMultiset.counts[i];
+		}
+		size -= aMultiset.size;
+		modCount++;
+		return true;
+	}
+	
+	public Boolean hasCard(Card card) {
+		return counts[card.getOrdinal()] > 0;
+	}
+	
+	public Boolean hasCards(CardCollection aCollec) {
+		return hasCards(new CardMultiset(aCollec));
+	}
+	
+	public Boolean hasCards(CardMultiset aMultiset) {
+		for (int i = 0; i < Card.NUM_OF_CARDS; ++i) {
+			if (aMultiset.counts[i] > counts[i]) 
+				return false;
+		}
+		return true;
+	}
+	
+	/*
+	 * Returns the number of copies of the passed card in the multiset.
+	 */
+	public int count(Card card) {
+		return counts[card.getOrdinal()];
+	}
+	
+	/*
+	 * Returns the cards in a new CardCollection that uses the given storage. The cards are sorted
+	 * by suit and card value.
+	 */
+	public CardCollection toCardCollection(CardStorage storage) {
+		List<Card> cards = new ArrayList<>(size);
+		
+		for (Card card : this) {
+			cards.add(card);
+		}
+		
+		CardCollection collection = new CardCollection(storage);
+		collection.addCards(cards);
+		return collection;
+	}
+	
+	/*
+	 * Returns an iterator over the cards sorted by suit and card value. Copies of the same card
+	 * are returned one after the other.
+	 */
+	@Override
+	public Iterator<Card> iterator() {
+		return new Iterator<Card>() {
+			private int suit = 0;
+			private int type = Card.CARDS_PER_SUIT - 1;
+			private int remainingCopies = -1;
+			private int returned = 0;
+			private final int expectedModCount = modCount;
+			
+			@Override
+			public boolean hasNext() {
+				return returned < size;
+			}
+
+			@Override
+			public Card next() {
+				if (modCount != expectedModCount)
+					throw new ConcurrentModificationException();
+				if (!hasNext())
+					throw new NoSuchElementException();
+				
+				// Cards are visited by suit and then in descending card value, same as CardComparator
+				while (remainingCopies <= 0) {
+					if (remainingCopies == 0) {
+						if (--type < 0) {
+							type = Card.CARDS_PER_SUIT - 1;
+							suit++;
+						}
+					}
+					remainingCopies = counts[suit * Card.CARDS_PER_SUIT + type];
+				}
+				remainingCopies--;
+				returned++;
+				return Card.fromOrdinal(suit * Card.CARDS_PER_SUIT + type);
+			}
+		};
+	}
+	
+	public void clear() {
+		Arrays.fill(counts, 0);
+		size = 0;
+		modCount++;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public Boolean isEmpty() {
+		return size == 0;
+	}
+}
@@ -0,0 +1,275 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Indexes cards by their score for a selected suit. A card scores its value, or twice its value if it
+ * belongs to the selected suit, so every score falls between 2 and 28. The index keeps a count of each
+ * card along with a bucket count per score, and tracks the lowest and highest non-empty buckets. This 
+ * makes finding or drawing the lowest and highest scoring cards O(1) amortized instead of a scan over
+ * every card. Each bucket holds at most four distinct cards (one per suit).
+ * 
+ * Used by CardCollection to draw cards strategically, and can be used on its own by strategy or simulation
+ * code. This class is not thread safe.
+ */
+
+public class CardScoreIndex {
+
+	public static final int MIN_SCORE = 2;
+	public static final int MAX_SCORE = 28;
+	
+	private final Suit selectedSuit;
+	private int[] counts = new int[Card.NUM_OF_CARDS];
+	private int[] bucketCounts = new int[MAX_SCORE + 1];
+	private int size = 0;
+	
+	// Bounds on the lowest and highest non-empty buckets. Removals only leave them stale, so they 
+	// are moved past empty buckets lazily when the lowest or highest card is looked up.
+	private int minScore = MAX_SCORE;
+	private int maxScore = MIN_SCORE;
+	
+	
+	// ______________PUBLIC______________
+	
+	
+	// __Constructors__
+	
+	public CardScoreIndex(Suit selectedSuit) {
+		if (selectedSuit == null)
+			throw new IllegalArgumentException("Selected suit cannot be null");
+		
+		this.selectedSuit = selectedSuit;
+	}
+	
+	public CardScoreIndex(Suit selectedSuit, Iterable<Card> cards) {
+		this(selectedSuit);
+		for (Card card : cards) {
+			addCard(card);
+		}
+	}
+	
+	/*
+	 * Indexes the cards of a multiset from its count of each card, which takes 52 steps however many
+	 * copies of each card it holds.
+	 */
+	public CardScoreIndex(Suit selectedSuit, CardMultiset cards) {
+		this(selectedSuit);
+		for (int ordinal = 0; ordinal < Card.NUM_OF_CARDS; ++ordinal) {
+			Card card = Card.fromOrdinal(ordinal);
+			int copies = cards.count(card);
+			
+			if (copies > 0) {
+				addCopies(card, copies);
+			}
+		}
+	}
+	
+	
+	// __Methods__
+	
+	/*
+	 * Returns the score of the card for the given selected suit.
+	 */
+	public static int score(Card card, Suit selectedSuit) {
+		int value = card.getCardType().getCardValue();
+		return card.getSuit() == selectedSuit ? 2 * value : value;
+	}
+	
+	public Suit getSelectedSuit() {
+		return selectedSuit;
+	}
+	
+	public void addCard(Card card) {
+		addCopies(card, 1);
+	}
+	
+	/*
+	 * Removes a single copy of the passed card. Returns false if the index doesn't contain the card.
+	 */
+	public Boolean removeCard(Card card) {
+		if (counts[card.getOrdinal()] == 0)
+			return false;
+		
+		counts[card.getOrdinal()]--;
+		bucketCounts[score(card, selectedSuit)]--;
+		size--;
+		return true;
+	}
+	
+	/*
+	 * Returns the lowest scoring card without removing it, or null if the index is empty.
+	 */
+	public Card lowest() {
+		if (size == 0)
+			return null;
+		
+		while (bucketCounts[minScore] == 0) {
+			minScore++;
+		}
+		return firstCardInBucket(minScore);
+	}
+	
+	/*
+	 * Returns the highest scoring card without removing it, or null if the index is empty.
+	 */
+	public Card highest() {
+		if (size == 0)
+			return null;
+		
+		while (bucketCounts[maxScore] == 0) {
+			maxScore--;
+		}
+		return firstCardInBucket(maxScore);
+	}
+	
+	/*
+	 * Returns the given number of lowest scoring cards without removing them, in ascending order of score.
+	 */
+	public List<Card> lowest(int numOfCards) {
+		checkNumOfCards(numOfCards);
+		
+		List<Card> found = new ArrayList<>(numOfCards);
+		for (int score = MIN_SCORE; found.size() < numOfCards; ++score) {
+			collectBucket(score, numOfCards, found);
+		}
+		return found;
+	}
+	
+	/*
+	 * Returns the given number of highest scoring cards without removing them, in descending order of score.
+	 */
+	public List<Card> highest(int numOfCards) {
+		checkNumOfCards(numOfCards);
+		
+		List<Card> found = new ArrayList<>(numOfCards);
+		for (int score = MAX_SCORE; found.size() < numOfCards; --score) {
+			collectBucket(score, numOfCards, found);
+		}
+		return found;
+	}
+	
+	/*
+	 * Removes the lowest scoring card and returns it, or null if the index is empty.
+	 */
+	public Card drawMin() {
+		Card card = lowest();
+		if (card != null) 
+			removeCard(card);
+		return card;
+	}
+	
+	/*
+	 * Removes the highest scoring card and returns it, or null if the index is empty.
+	 */
+	public Card drawMax() {
+		Card card = highest();
+		if (card != null) 
+			removeCard(card);
+		return card;
+	}
+	
+	/*
+	 * Removes the given number of lowest scoring cards and returns them in a collection.
+	 */
+	public CardCollection drawLowest(int numOfCards) {
+		return removeAll(lowest(numOfCards));
+	}
+	
+	/*
+	 * Removes the given number of highest scoring cards and returns them in a collection.
+	 */
+	public CardCollection drawHighest(int numOfCards) {
+		return removeAll(highest(numOfCards));
+	}
+	
+	public Boolean hasCard(Card card) {
+		return counts[card.getOrdinal()] > 0;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public Boolean isEmpty() {
+		return size == 0;
+	}
+	
+	public void clear() {
+		counts = new int[Card.NUM_OF_CARDS];
+		bucketCounts = new int[MAX_SCORE + 1];
+		size = 0;
+		minScore = MAX_SCORE;
+		maxScore = MIN_SCORE;
+	}
+	
+	
+	// ______________PRIVATE______________
+	
+	private void addCopies(Card card, int copies) {
+		int score = score(card, selectedSuit);
+		
+		counts[card.getOrdinal()] += copies;
+		bucketCounts[score] += copies;
+		size += copies;
+		
+		if (score < minScore) 
+			minScore = score;
+		if (score > maxScore)
+			maxScore = score;
+	}
+	
+	/*
+	 * Returns the ordinal of the card of the given suit that has the given score, or -1 if there is none.
+	 */
+	private int ordinalWithScore(int suit, int score) {
+		int value = (suit == selectedSuit.ordinal()) ? (score % 2 == 0 ? score / 2 : -1) : score;
+		
+		if (value < CardType.TWO.getCardValue() || value > CardType.ACE.getCardValue())
+			return -1;
+		
+		return suit * Card.CARDS_PER_SUIT + (value - CardType.TWO.getCardValue());
+	}
+	
+	private Card firstCardInBucket(int score) {
+		for (int suit = 0; suit < Suit.values().length; ++suit) {
+			int ordinal = ordinalWithScore(suit, score);
+			
+			if (ordinal != -1 && counts[ordinal] > 0)
+				return Card.fromOrdinal(ordinal);
+		}
+		throw new IllegalStateException("Score bucket " + score + " is out of sync with card counts");
+	}
+	
+	/*
+	 * Adds the cards in the given score bucket to the found list until it holds numOfCards cards.
+	 */
+	private void collectBucket(int score, int numOfCards, List<Card> found) {
+		if (bucketCounts[score] == 0)
+			return;
+		
+		for (int suit = 0; suit < Suit.values().length && found.size() < numOfCards; ++suit) {
+			int ordinal = ordinalWithScore(suit, score);
+			
+			if (ordinal == -1)
+				continue;
+			
+			for (int n = counts[ordinal]; n > 0 && found.size() < numOfCards; --n) {
+				found.add(Card.fromOrdinal(ordinal));
+			}
+		}
+	}
+	
+	private CardCollection removeAll(List<Card> toRemove) {
+		CardCollection removed = new CardCollection();
+		removed.addCards(toRemove);
+		
+		for (Card card : toRemove) {
+			removeCard(card);
+		}
+		return removed;
+	}
+	
+	private void checkNumOfCards(int numOfCards) {
+		if (numOfCards < 0 || numOfCards > size)
+			throw new IllegalArgumentException("Cannot take " + numOfCards + " cards from an index of " + size + " cards");
+	}
+}
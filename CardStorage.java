@@ -0,0 +1,8 @@
+/*
+ * Selects how a CardCollection stores its cards.
+ */
+public enum CardStorage {
+	COPY_ON_WRITE,		// Thread safe list of Card references. Every mutation copies the whole backing array.
+	BYTE_ARRAY,			// Growable array of card ordinals. Mutations don't allocate, but access must be confined to one thread or guarded by a lock.
+	SORTED				// Count of each card, always sorted by suit and card value. Sorting is free but the collection cannot be shuffled. Not thread safe.
+}
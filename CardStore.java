@@ -0,0 +1,52 @@
+import java.io.Serializable;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/*
+ * Backing storage of a CardCollection. CardCollection implements the game logic (limits, strategic
+ * draws etc) on top of these index based primitives so that the storage can be swapped per collection.
+ */
+interface CardStore extends Serializable, Iterable<Card> {
+
+	CardStorage getStorage();
+
+	void add(Card card);
+
+	void addAll(CardStore store);
+
+	void addAll(List<Card> cards);
+
+	/*
+	 * Adds the cards at positions from (inclusive) to to (exclusive) of the passed store.
+	 */
+	void addRange(CardStore store, int from, int to);
+
+	Card get(int index);
+
+	Card removeAt(int index);
+
+	boolean remove(Card card);
+
+	/*
+	 * Removes counts[i] copies of the card with ordinal i, for every i, in a single pass.
+	 */
+	void removeCounts(int[] counts);
+
+	/*
+	 * Removes the cards at position newSize onwards.
+	 */
+	void truncate(int newSize);
+
+	boolean contains(Card card);
+
+	/*
+	 * Sorts the cards by suit and then by descending card value.
+	 */
+	void sort();
+
+	void shuffle(RandomGenerator random);
+
+	void clear();
+
+	int size();
+}
@@ -0,0 +1,131 @@
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.random.RandomGenerator;
+
+/*
+ * CardStore backed by a CopyOnWriteArrayList. This is the original storage of CardCollection and
+ * is safe to share between threads, at the cost of copying the backing array on every mutation.
+ */
+class CopyOnWriteCardStore implements CardStore {
+
+	private static final long serialVersionUID = 4310L;
+	
+	private final CopyOnWriteArrayList<Card> cards = new CopyOnWriteArrayList<>();
+	
+	@Override
+	public CardStorage getStorage() {
+		return CardStorage.COPY_ON_WRITE;
+	}
+
+	@Override
+	public void add(Card card) {
+		cards.add(card);
+	}
+
+	@Override
+	public void addAll(CardStore store) {
+		if (store instanceof CopyOnWriteCardStore) {
+			cards.addAll(((CopyOnWriteCardStore) store).cards);
+		}
+		else {
+			// Copy into a list first so that the backing array is only copied once
+			Card[] toAdd = new Card[store.size()];
+			for (int i = 0; i < toAdd.length; ++i) {
+				toAdd[i] = store.get(i);
+			}
+			cards.addAll(List.of(toAdd));
+		}
+	}
+
+	@Override
+	public void addAll(List<Card> toAdd) {
+		cards.addAll(toAdd);
+	}
+
+	@Override
+	public void addRange(CardStore store, int from, int to) {
+		if (store instanceof CopyOnWriteCardStore) {
+			cards.addAll(((CopyOnWriteCardStore) store).cards.subList(from, to));
+		}
+		else {
+			Card[] toAdd = new Card[to - from];
+			for (int i = 0; i < toAdd.length; ++i) {
+				toAdd[i] = store.get(from + i);
+			}
+			cards.addAll(List.of(toAdd));
+		}
+	}
+
+	@Override
+	public Card get(int index) {
+		return cards.get(index);
+	}
+
+	@Override
+	public Card removeAt(int index) {
+		return cards.remove(index);
+	}
+
+	@Override
+	public boolean remove(Card card) {
+		return cards.remove(card);
+	}
+
+	@Override
+	public void removeCounts(int[] counts) {
+		int[] remaining = counts.clone();
+		cards.removeIf(card -> remaining[card.getOrdinal()]-- > 0);
+	}
+
+	@Override
+	public void truncate(int newSize) {
+		cards.subList(newSize, cards.size()).clear();
+	}
+
+	@Override
+	public boolean contains(Card card) {
+		return cards.contains(card);
+	}
+
+	@Override
+	public void sort() {
+		Collections.sort(cards, new CardComparator());
+	}
+
+	/*
+	 * Shuffles a copy of the cards with Fisher-Yates and writes them back in one go, as swapping
+	 * elements of the list directly would copy the backing array on every swap. The list itself is
+	 * kept, so other threads see the shuffled cards as soon as they are published. Cards added while
+	 * shuffling keep their place at the end.
+	 */
+	@Override
+	public void shuffle(RandomGenerator random) {
+		Card[] shuffled = cards.toArray(new Card[0]);
+		
+		for (int i = shuffled.length - 1; i > 0; --i) {
+			int j = random.nextInt(i + 1);
+			Card temp = shuffled[i];
+			shuffled[i] = shuffled[j];
+			shuffled[j] = temp;
+		}
+		int[] next = { 0 };
+		cards.replaceAll(card -> (next[0] < shuffled.length) ? shuffled[next[0]++] : card);
+	}
+
+	@Override
+	public void clear() {
+		cards.clear();
+	}
+
+	@Override
+	public int size() {
+		return cards.size();
+	}
+
+	@Override
+	public Iterator<Card> iterator() {
+		return cards.iterator();
+	}
+}
@@ -10,6 +10,8 @@ public class Deck {
 	
 	private CardCollection cards = new CardCollection();
 	public static final int DECK_SIZE = 52;
+	public static final int SUIT_VALUE = 104;							// Sum of the values of the 13 cards of a suit i.e 2 + 3 + ... + 14
+	public static final int DECK_VALUE = SUIT_VALUE * Suit.values().length;	// Sum of the values of all 52 cards
 	
 	public Deck() {
 		initializeDeck();
@@ -19,12 +21,9 @@ public class Deck {
 	 * Add 52 standard playing cards to the Deck.
 	 */
 	private void initializeDeck() {
-		// Loop over the 4 card suits
-		for (Suit suit : Suit.values()) {
-			// Loop over 13 card types
-			for (CardType value : CardType.values()) {
-				cards.addCard(new Card(suit, value));
-			}
+		// The 52 canonical cards are shared by every deck, so no Card objects are created here.
+		for (Card card : Card.standardDeck()) {
+			cards.addCard(card);
 		}
 	}
 	
@@ -0,0 +1,222 @@
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/*
+ * Append-only binary record of a game: every card dealt, every decision and the final scores, with each card
+ * stored as a single byte. A journal is a few hundred bytes where the text log is tens of kilobytes, and
+ * GameJournalTool renders it back into the text log and verifies it against the rules. See JournalRecord
+ * for the format of the records.
+ *
+ * Records are collected in a buffer and appended to the file when it fills up and when the journal is closed.
+ * Like GameLogger, the journal is written by one thread at a time: the game thread and then each player
+ * during its turn.
+ */
+public class GameJournal {
+
+	static final byte[] MAGIC = { 'C', 'G', 'J', 1 };		// Marks a journal file and its format version
+	static final int NO_WINNER = 0xFF;
+	private static final int BUFFER_SIZE = 1 << 14;
+	private static final int RECORD_HEADER_SIZE = 3;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private Boolean failed = false;
+
+
+	// ______________PUBLIC______________
+
+	/*
+	 * Creates a journal file of the given name next to the log files.
+	 */
+	public GameJournal(String fileName) throws FileNotFoundException {
+		try {
+			channel = FileChannel.open(Paths.get(GameLogger.LOG_DIRECTORY, fileName), StandardOpenOption.CREATE,
+									   StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		}
+		catch (IOException e) {
+			throw new FileNotFoundException("Journal file could not be created!");
+		}
+		buffer.put(MAGIC);
+	}
+
+	public void recordGame(int numOfDecks, int numOfPlayers, long seed, GameRules rules) {
+		int rounds = rules.getNumberOfRounds();
+		begin(JournalRecord.GAME, 11 + 2 * rounds);
+		buffer.put((byte) numOfDecks);
+		buffer.put((byte) numOfPlayers);
+		buffer.putLong(seed);
+		buffer.put((byte) rounds);
+		for (int i = 0; i < rounds; ++i) {
+			buffer.put((byte) rules.getCardsDumped(i));
+			buffer.put((byte) rules.getCardsDrawn(i));
+		}
+	}
+
+	/*
+	 * Records the names of the players in the order they connected in.
+	 */
+	public void recordPlayers(List<String> names) {
+		byte[][] encoded = new byte[names.size()][];
+		int length = 1;
+		for (int i = 0; i < encoded.length; ++i) {
+			encoded[i] = names.get(i).getBytes(StandardCharsets.UTF_8);
+			length += 2 + encoded[i].length;
+		}
+
+		begin(JournalRecord.PLAYERS, length);
+		buffer.put((byte) encoded.length);
+		for (byte[] name : encoded) {
+			putString(name);
+		}
+	}
+
+	/*
+	 * Records a card dealt while determining the first player. The player is given by the order they
+	 * connected in, as the order of turns is not known yet.
+	 */
+	public void recordFirstPlayerDraw(Card card, int playerIndex) {
+		begin(JournalRecord.FIRST_PLAYER_DRAW, 2);
+		buffer.put((byte) card.getOrdinal());
+		buffer.put((byte) playerIndex);
+	}
+
+	public void recordSuit(Suit selectedSuit) {
+		begin(JournalRecord.SUIT, 1);
+		buffer.put((byte) selectedSuit.ordinal());
+	}
+
+	public void recordDeal(int seat, CardCollection hand) {
+		recordCards(JournalRecord.DEAL, seat, hand, hand.size());
+	}
+
+	public void recordOpenPile(CardMultiset pile) {
+		begin(JournalRecord.OPEN_PILE, 2 + pile.size());
+		putCards(pile, pile.size());
+	}
+
+	public void recordWinEstimate(int seat, WinEstimate estimate) {
+		byte[] encoded = estimate.toString().getBytes(StandardCharsets.UTF_8);
+		begin(JournalRecord.WIN_ESTIMATE, 3 + encoded.length);
+		buffer.put((byte) seat);
+		putString(encoded);
+	}
+
+	public void recordTurn(int seat, int round) {
+		begin(JournalRecord.TURN, 2);
+		buffer.put((byte) seat);
+		buffer.put((byte) round);
+	}
+
+	public void recordClientHand(int seat, CardMultiset reportedHand) {
+		recordCards(JournalRecord.CLIENT_HAND, seat, reportedHand, reportedHand.size());
+	}
+
+	public void recordDump(int seat, CardCollection dumpedCards) {
+		recordCards(JournalRecord.DUMP, seat, dumpedCards, dumpedCards.size());
+	}
+
+	public void recordPick(int seat, CardCollection drawnCards) {
+		recordCards(JournalRecord.PICK, seat, drawnCards, drawnCards.size());
+	}
+
+	public void recordScore(int seat, int score) {
+		begin(JournalRecord.SCORE, 5);
+		buffer.put((byte) seat);
+		buffer.putInt(score);
+	}
+
+	/*
+	 * Records that the client of the given seat left the game during its turn, for the given reason.
+	 */
+	public void recordLeave(int seat, String reason) {
+		byte[] encoded = reason.getBytes(StandardCharsets.UTF_8);
+		begin(JournalRecord.LEAVE, 3 + encoded.length);
+		buffer.put((byte) seat);
+		putString(encoded);
+	}
+
+	/*
+	 * Records the seat of the winner, or -1 if the game is tied.
+	 */
+	public void recordResult(int winnerIndex) {
+		begin(JournalRecord.RESULT, 1);
+		buffer.put((byte) (winnerIndex == -1 ? NO_WINNER : winnerIndex));
+	}
+
+	/*
+	 * Appends the remaining records to the file, forces it to disk and closes it.
+	 */
+	public void close() {
+		flush();
+		try {
+			if (!failed) {
+				channel.force(false);
+			}
+			channel.close();
+		}
+		catch (IOException e) {
+			System.err.println("Error closing journal file!");
+			e.printStackTrace();
+		}
+	}
+
+
+	// ______________PRIVATE______________
+
+	private void recordCards(JournalRecord type, int seat, Iterable<Card> cards, int count) {
+		begin(type, 3 + count);
+		buffer.put((byte) seat);
+		putCards(cards, count);
+	}
+
+	/*
+	 * Writes the header of a record with the given payload length, making room for the whole record first.
+	 */
+	private void begin(JournalRecord type, int length) {
+		if (RECORD_HEADER_SIZE + length > BUFFER_SIZE)
+			throw new IllegalArgumentException("Journal record is too long: " + length + " bytes");
+
+		if (buffer.remaining() < RECORD_HEADER_SIZE + length) {
+			flush();
+		}
+		buffer.put((byte) type.getCode());
+		buffer.putShort((short) length);
+	}
+
+	private void putCards(Iterable<Card> cards, int count) {
+		buffer.putShort((short) count);
+		for (Card card : cards) {
+			buffer.put((byte) card.getOrdinal());
+		}
+	}
+
+	private void putString(byte[] encoded) {
+		buffer.putShort((short) encoded.length);
+		buffer.put(encoded);
+	}
+
+	/*
+	 * Appends the buffered records to the file. After the first error records are discarded so that
+	 * journaling never stops the game.
+	 */
+	private void flush() {
+		buffer.flip();
+		try {
+			while (!failed && buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+		catch (IOException e) {
+			failed = true;
+			System.err.println("Error writing journal file, the rest of the journal is discarded!");
+			e.printStackTrace();
+		}
+		buffer.clear();
+	}
+}
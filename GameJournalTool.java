@@ -0,0 +1,556 @@
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Usage: java GameJournalTool render <journal> [log file]
+ *        java GameJournalTool verify <journal>
+ * "render" writes the text log of a journaled game, exactly as GameLogger would have written it, to the given
+ * file or to standard output. "verify" replays the journal against the rules of the game: the cards dealt
+ * must make up whole decks, players must take their turns in order and only dump cards from their hand and
+ * draw cards from the pile, and the recorded scores and winner must match the final hands. Players that left
+ * the game must play no more turns and must not be scored. Any problem found is printed and the tool exits
+ * with status 1.
+ */
+public class GameJournalTool {
+
+	private final GameLogger logger;		// Null when only verifying
+	private final List<String> problems = new ArrayList<>();
+
+	private int numOfDecks;
+	private int numOfPlayers;
+	private GameRules rules = GameRules.STANDARD;
+	private List<String> names = new ArrayList<>();		// In the order the players connected in
+	private int cardsDrawnForFirstPlayer = 0;
+	private int firstPlayer = -1;						// In the order the players connected in
+	private Suit selectedSuit = null;
+	private String[] seatNames = null;					// In the order of turns
+	private CardMultiset[] hands;
+	private boolean[] leftGame;							// In the order of turns
+	private CardMultiset pile = new CardMultiset();
+	private int turnsStarted = 0;
+	private int seat = -1;								// Seat of the current turn
+	private int round = -1;								// Round of the current turn
+	private Boolean endOfRound = false;					// A blank line is due once the estimate of the last turn has been logged
+	private Boolean initialEstimates = false;			// A blank line is due after the estimates of the dealt hands
+	private int[] scores;
+	private Boolean scoresStarted = false;
+
+
+	/*
+	 * Replays a journal, rendering it to the given logger unless it is null.
+	 */
+	GameJournalTool(GameLogger logger) {
+		this.logger = logger;
+	}
+
+
+	// ______________PACKAGE______________
+
+	/*
+	 * Replays every record of the journal and returns the problems found.
+	 */
+	List<String> replay(JournalReader journal) throws IOException {
+		while (journal.next()) {
+			JournalRecord type = journal.getType();
+			if (type != JournalRecord.WIN_ESTIMATE) {
+				finishPendingLines();
+			}
+
+			switch (type) {
+				case GAME:
+					replayGame(journal);
+					break;
+				case PLAYERS:
+					replayPlayers(journal);
+					break;
+				case FIRST_PLAYER_DRAW:
+					replayFirstPlayerDraw(journal);
+					break;
+				case SUIT:
+					replaySuit(journal);
+					break;
+				case DEAL:
+					replayDeal(journal);
+					break;
+				case OPEN_PILE:
+					replayOpenPile(journal);
+					break;
+				case WIN_ESTIMATE:
+					replayWinEstimate(journal);
+					break;
+				case TURN:
+					replayTurn(journal);
+					break;
+				case CLIENT_HAND:
+					replayClientHand(journal);
+					break;
+				case DUMP:
+					replayDump(journal);
+					break;
+				case PICK:
+					replayPick(journal);
+					break;
+				case SCORE:
+					replayScore(journal);
+					break;
+				case RESULT:
+					replayResult(journal);
+					break;
+				case LEAVE:
+					replayLeave(journal);
+					break;
+			}
+		}
+		finishPendingLines();
+
+		if (!scoresStarted) {
+			problems.add("The journal ends before the game was scored");
+		}
+		return problems;
+	}
+
+
+	// ______________PRIVATE______________
+
+	private void replayGame(JournalReader journal) throws IOException {
+		numOfDecks = journal.readByte();
+		numOfPlayers = journal.readByte();
+		long seed = journal.readLong();
+
+		int numOfRounds = journal.readByte();
+		int[] cardsDumped = new int[numOfRounds];
+		int[] cardsDrawn = new int[numOfRounds];
+		for (int i = 0; i < numOfRounds; ++i) {
+			cardsDumped[i] = journal.readByte();
+			cardsDrawn[i] = journal.readByte();
+		}
+
+		try {
+			rules = new GameRules(cardsDumped, cardsDrawn);
+		}
+		catch (InvalidGameParameterException e) {
+			problems.add("Invalid rules: " + e.getMessage());
+		}
+		if (numOfDecks < 1 || numOfDecks > CardGame.DECK_LIMIT) {
+			problems.add("Invalid number of decks: " + numOfDecks);
+		}
+		if (numOfPlayers < 2 || numOfPlayers > 4) {
+			problems.add("Invalid number of players: " + numOfPlayers);
+			numOfPlayers = Math.max(numOfPlayers, 1);
+		}
+
+		logHeading("GAME PARAMETERS", true);
+		log("--Number of decks: " + numOfDecks);
+		log("--Number of players: " + numOfPlayers);
+		log("--Seed: " + seed);
+		if (!rules.isStandard()) {
+			log("--Rounds (dumped/drawn): " + rules);
+		}
+	}
+
+	private void replayPlayers(JournalReader journal) throws IOException {
+		int count = journal.readByte();
+		if (count != numOfPlayers) {
+			problems.add(count + " players joined a game for " + numOfPlayers);
+		}
+
+		log("\n--PLAYER NAMES:");
+		for (int i = 0; i < count; ++i) {
+			names.add(journal.readString());
+			log("----" + names.get(i));
+		}
+	}
+
+	private void replayFirstPlayerDraw(JournalReader journal) throws IOException {
+		Card card = Card.fromOrdinal(journal.readByte());
+		int player = journal.readByte();
+
+		if (cardsDrawnForFirstPlayer == 0) {
+			log("\n--DETERMINIG FIRST PLAYER:");
+		}
+		if (firstPlayer != -1) {
+			problems.add(card.getName() + " was dealt after the first player was found");
+		}
+		if (player != cardsDrawnForFirstPlayer % numOfPlayers) {
+			problems.add(card.getName() + " was dealt to the wrong player while determining the first player");
+		}
+		++cardsDrawnForFirstPlayer;
+
+		log("----" + card.getName() + " dealt to " + nameOf(player));
+		if (card.getCardType() == CardType.JACK && firstPlayer == -1) {
+			firstPlayer = player;
+			log("\n--FIRST PLAYER: " + nameOf(player));
+		}
+	}
+
+	private void replaySuit(JournalReader journal) throws IOException {
+		int suit = journal.readByte();
+		if (suit >= Suit.values().length)
+			throw new IOException("Invalid suit: " + suit);
+
+		selectedSuit = Suit.values()[suit];
+		log("--SELECTED SUIT: " + selectedSuit + "\n");
+		seatPlayers();
+	}
+
+	private void replayDeal(JournalReader journal) throws IOException {
+		seatPlayers();
+		int dealtSeat = readSeat(journal);
+		CardCollection hand = journal.readCards();
+
+		if (hands == null) {
+			hands = new CardMultiset[numOfPlayers];
+			logHeading("INITIAL HANDS", true);
+		}
+		hands[dealtSeat] = new CardMultiset(hand);
+		logHand(dealtSeat);
+	}
+
+	/*
+	 * The open pile is recorded after the hands, so the whole deal can be checked here.
+	 */
+	private void replayOpenPile(JournalReader journal) throws IOException {
+		pile = new CardMultiset(journal.readCards());
+		if (hands == null) {
+			problems.add("No hands were dealt");
+			return;
+		}
+
+		int cardsPerPlayer = (numOfDecks * Deck.DECK_SIZE) / numOfPlayers;
+		CardMultiset dealt = new CardMultiset(pile);
+		for (int i = 0; i < numOfPlayers; ++i) {
+			if (hands[i] == null) {
+				problems.add(seatNames[i] + " was not dealt a hand");
+				hands[i] = new CardMultiset();
+			}
+			else if (hands[i].size() != cardsPerPlayer) {
+				problems.add(seatNames[i] + " was dealt " + hands[i].size() + " cards instead of " + cardsPerPlayer);
+			}
+			dealt.addMultiset(hands[i]);
+		}
+
+		for (int ordinal = 0; ordinal < Card.NUM_OF_CARDS; ++ordinal) {
+			Card card = Card.fromOrdinal(ordinal);
+			if (dealt.count(card) != numOfDecks) {
+				problems.add(dealt.count(card) + " copies of " + card.getName() + " were dealt from " + numOfDecks + " decks");
+			}
+		}
+	}
+
+	private void replayWinEstimate(JournalReader journal) throws IOException {
+		int estimateSeat = readSeat(journal);
+		String estimate = journal.readString();
+
+		if (turnsStarted == 0 && !initialEstimates) {
+			initialEstimates = true;
+			logHeading("WIN ESTIMATES", true);
+		}
+		log("--" + seatNames[estimateSeat] + "'s estimated win probability: " + estimate);
+		if (turnsStarted > 0) {
+			log("");
+		}
+	}
+
+	private void replayTurn(JournalReader journal) throws IOException {
+		seat = readSeat(journal);
+		round = journal.readByte();
+		skipTurnsOfLeftPlayers();
+
+		if (seat != turnsStarted % numOfPlayers || round != turnsStarted / numOfPlayers) {
+			problems.add(seatNames[seat] + " took a turn out of order in round " + (round + 1));
+		}
+		if (round >= rules.getNumberOfRounds())
+			throw new IOException("Turn in round " + (round + 1) + " of a game with " + rules.getNumberOfRounds() + " rounds");
+
+		++turnsStarted;
+
+		logHeading(seatNames[seat] + "'s " + PlayerThread.ordinal(round) + " turn", false);
+		log("\n--" + seatNames[seat] + "'s hand before " + PlayerThread.ordinal(round) + " turn (" + hands[seat].size() + ")");
+		logCards(hands[seat]);
+	}
+
+	private void replayClientHand(JournalReader journal) throws IOException {
+		int reportingSeat = readSeat(journal);
+		CardMultiset reported = new CardMultiset(journal.readCards());
+
+		log("--" + seatNames[reportingSeat] + "'s client reported a different hand (" + reported.size() + ")");
+		logCards(reported);
+	}
+
+	private void replayDump(JournalReader journal) throws IOException {
+		checkTurn(readSeat(journal), "dumped");
+		CardCollection dumpedCards = journal.readCards();
+		int cardsDumped = rules.getCardsDumped(round);
+
+		if (!hands[seat].removeCards(dumpedCards)) {
+			problems.add(seatNames[seat] + " dumped cards that are not in their hand");
+			dumpedCards = new CardCollection();
+		}
+		else if (dumpedCards.size() != cardsDumped) {
+			problems.add(seatNames[seat] + " dumped " + dumpedCards.size() + " cards instead of " + cardsDumped);
+		}
+
+		log("--Following " + PlayerThread.numberInWords(cardsDumped) + " cards dumped into pile:");
+		logCards(dumpedCards);
+		log("--Pile before dumping:");
+		logCards(pile);
+		pile.addCardCollection(dumpedCards);
+		log("--Pile after dumping:");
+		logCards(pile);
+
+		if (rules.getCardsDrawn(round) == 0) {
+			endTurn();
+		}
+	}
+
+	private void replayPick(JournalReader journal) throws IOException {
+		checkTurn(readSeat(journal), "drew");
+		CardCollection drawnCards = journal.readCards();
+		int cardsDrawn = rules.getCardsDrawn(round);
+
+		if (pile.removeCards(drawnCards)) {
+			hands[seat].addCardCollection(drawnCards);
+			if (drawnCards.size() != cardsDrawn) {
+				problems.add(seatNames[seat] + " drew " + drawnCards.size() + " cards instead of " + cardsDrawn);
+			}
+		}
+		else {
+			problems.add(seatNames[seat] + " drew cards that are not in the pile");
+		}
+
+		log("--Cards drawn from the pile:");
+		logCards(drawnCards);
+		log("--Pile after drawing cards:");
+		logCards(pile);
+		endTurn();
+	}
+
+	private void replayScore(JournalReader journal) throws IOException {
+		if (!scoresStarted) {
+			scoresStarted = true;
+			scores = new int[numOfPlayers];
+			Arrays.fill(scores, Integer.MIN_VALUE);		// Not recorded yet
+			skipTurnsOfLeftPlayers();
+
+			if (turnsStarted != numOfPlayers * rules.getNumberOfRounds()) {
+				problems.add(turnsStarted + " turns were played instead of " + numOfPlayers * rules.getNumberOfRounds());
+			}
+			logHeading("FINAL HANDS", true);
+			for (int i = 0; i < numOfPlayers; ++i) {
+				logHand(i);
+			}
+			logHeading("PLAYER SCORES", true);
+		}
+
+		int scoredSeat = readSeat(journal);
+		scores[scoredSeat] = journal.readInt();
+		if (leftGame[scoredSeat]) {
+			if (scores[scoredSeat] != GameResult.NOT_SCORED) {
+				problems.add(seatNames[scoredSeat] + " left the game but was scored " + scores[scoredSeat]);
+			}
+			log("----" + seatNames[scoredSeat] + " left the game and is not scored");
+			return;
+		}
+
+		int score = hands[scoredSeat].toCardCollection(CardStorage.SORTED).score(selectedSuit);
+		if (score != scores[scoredSeat]) {
+			problems.add(seatNames[scoredSeat] + "'s score was recorded as " + scores[scoredSeat] + " but their hand scores " + score);
+		}
+		log("----" + seatNames[scoredSeat] + "'s score is " + scores[scoredSeat]);
+	}
+
+	/*
+	 * A player leaves during their turn, so the turn is over and the player plays no more.
+	 */
+	private void replayLeave(JournalReader journal) throws IOException {
+		int leavingSeat = readSeat(journal);
+		String reason = journal.readString();
+
+		if (round == -1 || leavingSeat != seat) {
+			problems.add(seatNames[leavingSeat] + " left the game outside of their turn");
+		}
+		leftGame[leavingSeat] = true;
+
+		log("--" + seatNames[leavingSeat] + " left the game: " + reason);
+		log("");
+	}
+
+	private void replayResult(JournalReader journal) throws IOException {
+		int winner = journal.readByte();
+		if (winner != GameJournal.NO_WINNER && winner >= numOfPlayers)
+			throw new IOException("Invalid winner: " + winner);
+
+		if (scores == null || Arrays.stream(scores).anyMatch(score -> score == Integer.MIN_VALUE)) {
+			problems.add("The result was recorded before every player was scored");
+		}
+		else {
+			// GameResult applies the same rules as the game
+			GameResult result = new GameResult(0, selectedSuit, Arrays.asList(seatNames), scores);
+			int expected = result.isTied() ? GameJournal.NO_WINNER : result.getWinnerIndex();
+			if (winner != expected) {
+				problems.add("The recorded result doesn't match the scores");
+			}
+		}
+
+		if (winner != GameJournal.NO_WINNER) {
+			log("\n--WINNER: " + seatNames[winner]);
+		}
+		else {
+			log("\n--GAME IS TIED");
+		}
+	}
+
+	/*
+	 * The first player takes the first turn and the others follow in the order they connected in, as in
+	 * CardGame.setPlayerTurns().
+	 */
+	private void seatPlayers() throws IOException {
+		if (seatNames != null)
+			return;
+
+		if (firstPlayer == -1 || names.size() != numOfPlayers)
+			throw new IOException("Players are seated before the first player was found");
+
+		List<String> order = new ArrayList<>(names);
+		order.add(0, order.remove(firstPlayer));
+		seatNames = order.toArray(new String[0]);
+		leftGame = new boolean[numOfPlayers];
+
+		logHeading("ORDER OF TURNS", true);
+		for (int i = 0; i < numOfPlayers; ++i) {
+			log("----" + (i + 1) + " -> " + seatNames[i]);
+		}
+		log("");
+	}
+
+	private int readSeat(JournalReader journal) throws IOException {
+		int recordSeat = journal.readByte();
+		if (seatNames == null || recordSeat >= numOfPlayers)
+			throw new IOException("Invalid seat in " + journal.getType() + " record: " + recordSeat);
+		if (hands == null && journal.getType() != JournalRecord.DEAL)
+			throw new IOException(journal.getType() + " record before the hands were dealt");
+
+		return recordSeat;
+	}
+
+	private void checkTurn(int recordSeat, String action) throws IOException {
+		if (round == -1 || recordSeat != seat)
+			throw new IOException(seatNames[recordSeat] + " " + action + " cards outside of their turn");
+	}
+
+	/*
+	 * Counts the turns of players that have left the game as taken, since they are passed on without
+	 * being recorded.
+	 */
+	private void skipTurnsOfLeftPlayers() {
+		int numOfTurns = numOfPlayers * rules.getNumberOfRounds();
+		while (turnsStarted < numOfTurns && leftGame[turnsStarted % numOfPlayers]) {
+			++turnsStarted;
+		}
+	}
+
+	private void endTurn() {
+		log("--" + seatNames[seat] + "'s hand after " + PlayerThread.ordinal(round) + " turn (" + hands[seat].size() + ")");
+		logCards(hands[seat]);
+		endOfRound = round + 1 < rules.getNumberOfRounds();
+	}
+
+	/*
+	 * Writes the blank lines that follow a group of win estimates, which can only be written once it is
+	 * known that no more estimates follow.
+	 */
+	private void finishPendingLines() {
+		if (initialEstimates && turnsStarted == 0) {
+			log("");
+			initialEstimates = false;
+		}
+		if (endOfRound) {
+			log("");
+			endOfRound = false;
+		}
+	}
+
+	private String nameOf(int player) {
+		return (player < names.size()) ? names.get(player) : "player " + (player + 1);
+	}
+
+	private void logHand(int handSeat) {
+		CardMultiset hand = (hands[handSeat] != null) ? hands[handSeat] : new CardMultiset();
+		log("--" + seatNames[handSeat] + "'s hand " + "(" + hand.size() + ")" + ":");
+		logCards(hand.toCardCollection(CardStorage.SORTED));
+		log("");
+	}
+
+	private void log(String line) {
+		if (logger != null) {
+			logger.log(line);
+		}
+	}
+
+	/*
+	 * Logs a heading, followed by a blank line if asked for.
+	 */
+	private void logHeading(String heading, Boolean blankLine) {
+		if (logger != null) {
+			logger.logHeading(heading);
+			if (blankLine) {
+				logger.addNewLine();
+			}
+		}
+	}
+
+	private void logCards(Iterable<Card> cards) {
+		if (logger != null) {
+			logger.logCards(cards);
+		}
+	}
+
+
+	// ______________MAIN______________
+
+	public static void main(String[] args) {
+		Boolean render = args.length >= 2 && args[0].equalsIgnoreCase("render");
+		Boolean verify = args.length == 2 && args[0].equalsIgnoreCase("verify");
+		if (!render && !verify) {
+			System.err.println("Usage: java GameJournalTool render <journal> [log file]");
+			System.err.println("       java GameJournalTool verify <journal>");
+			return;
+		}
+
+		GameLogger logger = null;
+		List<String> problems;
+		try {
+			if (render) {
+				logger = (args.length > 2) ? new GameLogger(new PrintWriter(args[2])) : new GameLogger(new PrintWriter(System.out));
+			}
+			problems = new GameJournalTool(logger).replay(new JournalReader(Paths.get(args[1])));
+		}
+		catch (FileNotFoundException e) {
+			System.err.println(e.getMessage());
+			return;
+		}
+		catch (IOException | IllegalArgumentException e) {
+			problems = List.of("The journal could not be read: " + e.getMessage());
+		}
+		finally {
+			if (logger != null) {
+				logger.close();
+			}
+		}
+
+		for (String problem : problems) {
+			(verify ? System.out : System.err).println(problem);
+		}
+		if (verify && problems.isEmpty()) {
+			System.out.println("The game in " + args[1] + " was played by the rules");
+		}
+		if (!problems.isEmpty()) {
+			System.exit(1);
+		}
+	}
+}
@@ -1,50 +1,122 @@
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Iterator;
 
 public class GameLogger {
 
-	private PrintWriter writer;
+	static final String LOG_DIRECTORY = "./src/";
+	
+	private LogSegments segments = null;			// Only used when logging synchronously
+	private AsyncLogWriter asyncWriter = null;		// Only used when logging asynchronously
+	private PrintWriter writer = null;				// Only used by tools that log somewhere other than a log file
+													// All are null when the game is journaled instead
+	private final String lineSeparator = System.lineSeparator();
+	private Boolean failed = false;
 		
 	/*
 	 * Creates a log file of the name passed as the argument and throws an Exception if the
 	 * file cannot be found.
 	 */
 	public GameLogger(String fileName) throws FileNotFoundException {
+		this(fileName, LogMode.SYNCHRONOUS);
+	}
+	
+	/*
+	 * Same as above but the file is written in the given mode. In the asynchronous modes the lines are 
+	 * written by a background thread in the order they were logged, and close() waits for all of them. In
+	 * JOURNAL mode no file is created and nothing is logged.
+	 */
+	public GameLogger(String fileName, LogMode mode) throws FileNotFoundException {
+		this(fileName, mode, LogRotation.NONE);
+	}
+	
+	/*
+	 * Same as above but the log is split into segments, compressed and expired as the rotation says.
+	 */
+	public GameLogger(String fileName, LogMode mode, LogRotation rotation) throws FileNotFoundException {
 		try {
-			writer = new PrintWriter("./src/" + fileName);
+			if (mode == LogMode.JOURNAL) {
+				return;
+			}
+			
+			LogSegments file = new LogSegments(LOG_DIRECTORY, fileName, rotation);
+			if (mode == LogMode.SYNCHRONOUS) {
+				segments = file;
+			}
+			else {
+				asyncWriter = new AsyncLogWriter(file, mode, AsyncLogWriter.DEFAULT_CAPACITY);
+			}
 		} 
-		catch (FileNotFoundException e) {
+		catch (IOException e) {
 			throw new FileNotFoundException("Log file could not be created!");
 		}
 	}
 	
+	/*
+	 * Logs to the given writer, e.g. to render a journal to standard output.
+	 */
+	GameLogger(PrintWriter writer) {
+		this.writer = writer;
+	}
+	
+	/*
+	 * Returns false if nothing is logged because the game is journaled instead.
+	 */
+	public Boolean isEnabled() {
+		return segments != null || asyncWriter != null || writer != null;
+	}
+	
 	/*
 	 * Logs the passed string in the log file. 
 	 */
 	public void log(String log) {
-		this.writer.println(log);
+		if (segments != null) {
+			write(log);
+		}
+		else if (asyncWriter != null) {
+			asyncWriter.append(log);
+		}
+		else if (writer != null) {
+			writer.println(log);
+		}
 	}
 	
 	/*
-	 * Closes the the log file.
+	 * Closes the the log file. When logging asynchronously, waits until every logged line is on disk.
 	 */
 	public void close() {
-		this.writer.close();
+		if (segments != null) {
+			try {
+				segments.close();
+			}
+			catch (IOException e) {
+				reportFailure(e);
+			}
+		}
+		else if (asyncWriter != null) {
+			asyncWriter.close();
+		}
+		else if (writer != null) {
+			writer.close();
+		}
 	}
 	
 	/*
 	 * Adds a new line in the log file.
 	 */
 	public void addNewLine() {
-		this.writer.println();
+		log("");
 	}
 	
 	/*
 	 * Logs all the cards in the passed collection into the log file.
 	 */
-	public void logCards(CardCollection cards) {
+	public void logCards(Iterable<Card> cards) {
+		if (!isEnabled())
+			return;
+		
 		Iterator<Card> iter = cards.iterator();
 		
 		while(iter.hasNext()) {
@@ -69,16 +141,43 @@ public class GameLogger {
 	 * Modified solution from: https://stackoverflow.com/questions/27977973/how-to-use-print-format-to-make-box-around-text-java
 	 */
 	public void logHeading(String msg) {
+		if (!isEnabled())
+			return;
+		
 	    int boxWidth = msg.length();
 	    String line = "+" + ("-").repeat(boxWidth + 2) + "+";
 	    log(line);
-	    writer.printf("| %s |%n", padString(msg, boxWidth));
+	    log("| " + padString(msg, boxWidth) + " |");
 	    log(line);
 	}
 	
 	
 	// __Helper methods__
 	
+	/*
+	 * Writes a line when logging synchronously. After the first error lines are discarded, as they are
+	 * by a PrintWriter, so that logging never stops the game.
+	 */
+	private void write(String line) {
+		if (failed)
+			return;
+		
+		try {
+			segments.append(line + lineSeparator);
+		}
+		catch (IOException e) {
+			reportFailure(e);
+		}
+	}
+	
+	private void reportFailure(IOException e) {
+		if (!failed) {
+			failed = true;
+			System.err.println("Error writing log file, the rest of the log is discarded!");
+			e.printStackTrace();
+		}
+	}
+	
 	private String padString(String str, int len) {
 	    StringBuilder sb = new StringBuilder(str);
 	    String toAppend = (" ").repeat(len - str.length());
@@ -0,0 +1,273 @@
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/*
+ * Latencies and throughput of the games played by a server, published over JMX once registered. Latencies
+ * are kept in a LatencyHistogram per GamePhase and per GameProtocol command. The latency of a command that
+ * asks the client for something is the round trip from sending the request to reading the reply, and that
+ * of any other command is the time taken to write and send it. Counters of messages and bytes and gauges of
+ * the active tables and players are kept alongside.
+ *
+ * Everything is recorded with atomic increments, so the game and player threads never wait for each other.
+ * DISABLED records nothing, allocates no histograms and doesn't even read the clock, so the games of a server
+ * without metrics only pay for a check of a final field.
+ */
+public final class GameMetrics implements GameMetricsMXBean {
+
+	public static final GameMetrics DISABLED = new GameMetrics(false);
+	public static final String OBJECT_NAME = "ColorGame:type=GameMetrics";
+
+	private final boolean enabled;
+	private final Map<GamePhase, LatencyHistogram> phaseLatencies = new EnumMap<>(GamePhase.class);
+	private final Map<GameProtocol, LatencyHistogram> commandLatencies = new EnumMap<>(GameProtocol.class);
+	private final AtomicInteger activeTables = new AtomicInteger();
+	private final AtomicInteger activePlayers = new AtomicInteger();
+	private final LongAdder gamesCompleted = new LongAdder();
+	private final LongAdder messagesSent = new LongAdder();
+	private final LongAdder messagesReceived = new LongAdder();
+	private final LongAdder bytesSent = new LongAdder();
+	private final LongAdder bytesReceived = new LongAdder();
+
+
+	// ______________PUBLIC______________
+
+	/*
+	 * Creates metrics that record everything. They are only visible over JMX once registered.
+	 */
+	public GameMetrics() {
+		this(true);
+	}
+
+	/*
+	 * Publishes the metrics in the platform MBean server under OBJECT_NAME.
+	 */
+	public void register() throws JMException {
+		if (!enabled)
+			throw new IllegalStateException("Disabled metrics cannot be registered");
+
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+	}
+
+	public Boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public int getActiveTables() {
+		return activeTables.get();
+	}
+
+	@Override
+	public int getActivePlayers() {
+		return activePlayers.get();
+	}
+
+	@Override
+	public long getGamesCompleted() {
+		return gamesCompleted.sum();
+	}
+
+	@Override
+	public long getMessagesSent() {
+		return messagesSent.sum();
+	}
+
+	@Override
+	public long getMessagesReceived() {
+		return messagesReceived.sum();
+	}
+
+	@Override
+	public long getBytesSent() {
+		return bytesSent.sum();
+	}
+
+	@Override
+	public long getBytesReceived() {
+		return bytesReceived.sum();
+	}
+
+	@Override
+	public Map<String, LatencySnapshot> getPhaseLatencies() {
+		return getSnapshots(phaseLatencies);
+	}
+
+	@Override
+	public Map<String, LatencySnapshot> getCommandLatencies() {
+		return getSnapshots(commandLatencies);
+	}
+
+	@Override
+	public void resetLatencies() {
+		phaseLatencies.values().forEach(LatencyHistogram::reset);
+		commandLatencies.values().forEach(LatencyHistogram::reset);
+	}
+
+
+	// ______________PACKAGE______________
+
+	/*
+	 * Returns the time to pass to one of the record methods once whatever is being timed is done, or 0 if
+	 * disabled.
+	 */
+	long startTimer() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	void recordPhase(GamePhase phase, long startNanos) {
+		if (enabled) {
+			phaseLatencies.get(phase).record(System.nanoTime() - startNanos);
+		}
+	}
+
+	/*
+	 * Records a game played to the end, which is also the latency of its GAME phase.
+	 */
+	void recordGame(long startNanos) {
+		if (enabled) {
+			recordPhase(GamePhase.GAME, startNanos);
+			gamesCompleted.increment();
+		}
+	}
+
+	/*
+	 * Records the latency of a command, see above, and counts the message that the command was sent in.
+	 */
+	void recordCommandSent(GameProtocol cmd, long startNanos) {
+		if (enabled) {
+			commandLatencies.get(cmd).record(System.nanoTime() - startNanos);
+			messagesSent.increment();
+		}
+	}
+
+	/*
+	 * Counts a message that is queued rather than sent straight away. If it is a request, its latency is
+	 * recorded once its reply is received.
+	 */
+	void recordMessageQueued() {
+		if (enabled) {
+			messagesSent.increment();
+		}
+	}
+
+	/*
+	 * Records the round trip of a request whose reply has been read, given the time the request was sent at.
+	 */
+	void recordReplyReceived(GameProtocol request, long sentNanos) {
+		if (enabled) {
+			commandLatencies.get(request).record(System.nanoTime() - sentNanos);
+			messagesReceived.increment();
+		}
+	}
+
+	void recordTableStarted(int numOfPlayers) {
+		if (enabled) {
+			activeTables.incrementAndGet();
+			activePlayers.addAndGet(numOfPlayers);
+		}
+	}
+
+	void recordTableFinished(int numOfPlayers) {
+		if (enabled) {
+			activeTables.decrementAndGet();
+			activePlayers.addAndGet(-numOfPlayers);
+		}
+	}
+
+	/*
+	 * Returns the given stream of a client's socket wrapped so that the bytes read from it are counted, or
+	 * the stream itself if disabled. Should be wrapped in a buffer so that reads are counted in bulk.
+	 */
+	InputStream meter(InputStream in) {
+		return enabled ? new MeteredInputStream(in) : in;
+	}
+
+	/*
+	 * Same as above for the bytes written to a client's socket.
+	 */
+	OutputStream meter(OutputStream out) {
+		return enabled ? new MeteredOutputStream(out) : out;
+	}
+
+
+	// ______________PRIVATE______________
+
+	private GameMetrics(boolean enabled) {
+		this.enabled = enabled;
+
+		if (enabled) {
+			for (GamePhase phase : GamePhase.values()) {
+				phaseLatencies.put(phase, new LatencyHistogram());
+			}
+			for (GameProtocol cmd : GameProtocol.values()) {
+				commandLatencies.put(cmd, new LatencyHistogram());
+			}
+		}
+	}
+
+	private static Map<String, LatencySnapshot> getSnapshots(Map<? extends Enum<?>, LatencyHistogram> histograms) {
+		Map<String, LatencySnapshot> snapshots = new LinkedHashMap<>();
+		histograms.forEach((key, histogram) -> {
+			LatencySnapshot snapshot = histogram.getSnapshot();
+			if (snapshot.getCount() > 0) {
+				snapshots.put(key.name(), snapshot);
+			}
+		});
+		return snapshots;
+	}
+
+	private class MeteredInputStream extends FilterInputStream {
+
+		MeteredInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = in.read();
+			if (b >= 0) {
+				bytesReceived.increment();
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = in.read(b, off, len);
+			if (read > 0) {
+				bytesReceived.add(read);
+			}
+			return read;
+		}
+	}
+
+	private class MeteredOutputStream extends FilterOutputStream {
+
+		MeteredOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			bytesSent.increment();
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			bytesSent.add(len);
+		}
+	}
+}
@@ -0,0 +1,31 @@
+import java.util.Map;
+
+/*
+ * The attributes and operations of GameMetrics as seen by JMX clients. Latencies are keyed by the name of
+ * their GamePhase or GameProtocol command, and only phases and commands that have been recorded are listed.
+ */
+public interface GameMetricsMXBean {
+
+	int getActiveTables();
+
+	int getActivePlayers();
+
+	long getGamesCompleted();
+
+	long getMessagesSent();
+
+	long getMessagesReceived();
+
+	long getBytesSent();
+
+	long getBytesReceived();
+
+	Map<String, LatencySnapshot> getPhaseLatencies();
+
+	Map<String, LatencySnapshot> getCommandLatencies();
+
+	/*
+	 * Forgets every latency recorded so far, e.g. to measure a single load test. Counters are kept.
+	 */
+	void resetLatencies();
+}
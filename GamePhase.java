@@ -0,0 +1,14 @@
+/*
+ * Parts of a game whose latency is measured by GameMetrics. Every phase is a step of CardGame.run(),
+ * except for TURN which is one turn of a PlayerThread.
+ */
+public enum GamePhase {
+	GAME,					// The whole game, up to the results being sent to the clients
+	SET_PLAYER_NAMES,		// Asking every client for its player's name and sending it its seed
+	DETERMINE_FIRST_PLAYER,	// Dealing cards until a Jack is drawn
+	SELECT_SUIT,			// Asking the first player for the winning suit
+	DEAL_CARDS,				// Sending every client the winning suit and their dealt hand
+	LOG_HANDS,				// Logging every player's hand, once after the deal and once after the last turn
+	TURN,					// One turn of one player, from being woken by the sequencer to the turn being logged
+	DETERMINE_WINNER		// Scoring the hands and logging the result
+}
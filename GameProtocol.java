@@ -1,19 +1,56 @@
 
+/*
+ * Commands the server sends to its clients and the results of the game. In the binary wire format every
+ * command is sent as the code given to it below, see BinaryGameStream.
+ */
 public enum GameProtocol {
 	
-	SEND_CARDS_RANDOMLY_HAND,		// Randomly send specified number of Card's from the hand
-	SEND_CARDS_STRATEGICALLY_HAND,	// Strategically send specified number of Card's from the hand
-	SEND_CARDS_STRATEGICALLY_PILE,	// Strategically send specified number of Card's from the hand
-	SEND_HAND,
-	SEND_NAME,
-	SEND_SUIT,
-	SEND_HAND_SIZE,
-	SORT_HAND,
-	GAME_OVER,
-	RECEIVE_CARD,
-	RECEIVE_CARD_COLLECTION,
-	RECEIVE_SUIT,
-	YOU_WIN,
-	YOU_LOSE,
-	GAME_TIED
+	SEND_CARDS_RANDOMLY_HAND(0),	// Randomly send specified number of Card's from the hand
+	SEND_CARDS_STRATEGICALLY_HAND(1),	// Strategically send specified number of Card's from the hand
+	SEND_CARDS_STRATEGICALLY_PILE(2),	// Strategically send specified number of Card's from the hand
+	SEND_HAND(3),
+	SEND_SORTED_HAND(4),			// Sort the hand and then send it, the collection carries its own size
+	SEND_CARDS_STRATEGICALLY_HAND_WITH_HAND(5),	// Strategically send specified number of Card's from the hand followed by the sorted hand left over
+	SEND_NAME(6),
+	SEND_SUIT(7),
+	SEND_HAND_SIZE(8),
+	SORT_HAND(9),
+	GAME_OVER(10),
+	RECEIVE_CARD(11),
+	RECEIVE_CARD_COLLECTION(12),
+	RECEIVE_HAND(13),				// Whole dealt hand in a single message
+	RECEIVE_SUIT(14),
+	RECEIVE_SEED(15),				// Seed for the client's random number generator so that its choices can be reproduced
+	YOU_WIN(16),
+	YOU_LOSE(17),
+	GAME_TIED(18);
+
+	private static final GameProtocol[] COMMANDS = new GameProtocol[256];
+
+	static {
+		for (GameProtocol command : values()) {
+			if (COMMANDS[command.code] != null)
+				throw new IllegalStateException("Command code " + command.code + " is used twice");
+
+			COMMANDS[command.code] = command;
+		}
+	}
+
+	private final int code;
+
+
+	private GameProtocol(int code) {
+		this.code = code;
+	}
+
+	/*
+	 * Returns the command with the given code, or null if the code is unknown.
+	 */
+	public static GameProtocol fromCode(int code) {
+		return (code >= 0 && code < COMMANDS.length) ? COMMANDS[code] : null;
+	}
+
+	public int getCode() {
+		return code;
+	}
 }
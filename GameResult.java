@@ -0,0 +1,113 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * The outcome of a game: the selected suit, the players in order of their turns, their final scores 
+ * and the winner. A game is tied when more than one player has the highest score, in which case there
+ * is no winner.
+ */
+public class GameResult {
+
+	public static final int NOT_SCORED = -1;		// Score of a player that left the game, below anything a hand can score
+
+	private final long seed;
+	private final Suit selectedSuit;
+	private final List<String> playerNames;
+	private final int[] scores;
+	private final int winnerIndex;		// -1 if the game is tied
+	
+	
+	// ______________PUBLIC______________
+	
+	/*
+	 * Determines the winner from the final scores of the players, which are given in order of their turns.
+	 */
+	public GameResult(long seed, Suit selectedSuit, List<String> playerNames, int[] scores) {
+		if (playerNames.size() != scores.length)
+			throw new IllegalArgumentException("Number of scores does not match the number of players");
+		if (scores.length == 0)
+			throw new IllegalArgumentException("A game needs at least one player");
+		
+		this.seed = seed;
+		this.selectedSuit = selectedSuit;
+		this.playerNames = Collections.unmodifiableList(playerNames);
+		this.scores = scores.clone();
+		this.winnerIndex = findWinner(this.scores);
+	}
+	
+	/*
+	 * Returns the seed that the game's random number generator was created with.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
+	public Suit getSelectedSuit() {
+		return selectedSuit;
+	}
+	
+	/*
+	 * Returns the names of the players in order of their turns.
+	 */
+	public List<String> getPlayerNames() {
+		return playerNames;
+	}
+	
+	/*
+	 * Returns the score of the player with the given turn, starting from 0.
+	 */
+	public int getScore(int playerIndex) {
+		return scores[playerIndex];
+	}
+	
+	public int[] getScores() {
+		return scores.clone();
+	}
+	
+	public Boolean isTied() {
+		return winnerIndex == -1;
+	}
+	
+	/*
+	 * Returns the turn of the winner, starting from 0, or -1 if the game is tied.
+	 */
+	public int getWinnerIndex() {
+		return winnerIndex;
+	}
+	
+	/*
+	 * Returns the name of the winner, or null if the game is tied.
+	 */
+	public String getWinnerName() {
+		return isTied() ? null : playerNames.get(winnerIndex);
+	}
+	
+	@Override
+	public String toString() {
+		return "GameResult[seed=" + seed + ", suit=" + selectedSuit + ", players=" + playerNames + ", scores=" + Arrays.toString(scores)
+				+ ", " + (isTied() ? "tied" : "winner=" + getWinnerName()) + "]";
+	}
+	
+	
+	// ______________PACKAGE______________
+	
+	/*
+	 * Returns the index of the single highest score, or -1 if more than one player has the highest score.
+	 */
+	static int findWinner(int[] scores) {
+		int winner = 0;
+		boolean tied = false;
+		
+		for (int i = 1; i < scores.length; ++i) {
+			if (scores[i] > scores[winner]) {
+				winner = i;
+				tied = false;
+			}
+			else if (scores[i] == scores[winner]) {
+				tied = true;
+			}
+		}
+		return tied ? -1 : winner;
+	}
+}
@@ -0,0 +1,84 @@
+import java.util.Arrays;
+
+/*
+ * The number of rounds in a game and the cards exchanged in each one. In every round each player takes one
+ * turn, in which they dump some of their cards into the open pile and then draw some cards from it. The
+ * standard game has two rounds: dump five cards, then dump two cards and draw two.
+ */
+public final class GameRules {
+
+	public static final GameRules STANDARD = new GameRules(
+			new int[] { PlayerThread.CARDS_IN_FIRST_TURN, PlayerThread.CARDS_IN_SECOND_TURN },
+			new int[] { 0, PlayerThread.CARDS_IN_SECOND_TURN });
+
+	private final int[] cardsDumped;
+	private final int[] cardsDrawn;
+
+
+	// ______________PUBLIC______________
+
+	/*
+	 * Creates rules with one round per entry of the arrays. Round i dumps cardsDumped[i] cards and then
+	 * draws cardsDrawn[i] cards. A player never draws more cards than they dumped in the same turn, so the
+	 * pile always has enough cards for them.
+	 */
+	public GameRules(int[] cardsDumped, int[] cardsDrawn) {
+		if (cardsDumped.length == 0 || cardsDumped.length != cardsDrawn.length)
+			throw new InvalidGameParameterException("Every round needs a number of cards to dump and to draw");
+
+		for (int i = 0; i < cardsDumped.length; ++i) {
+			if (cardsDumped[i] < 0 || cardsDrawn[i] < 0)
+				throw new InvalidGameParameterException("Number of cards in round " + (i + 1) + " cannot be negative");
+			if (cardsDrawn[i] > cardsDumped[i])
+				throw new InvalidGameParameterException("Cannot draw more cards than are dumped in round " + (i + 1));
+		}
+		this.cardsDumped = cardsDumped.clone();
+		this.cardsDrawn = cardsDrawn.clone();
+	}
+
+	public int getNumberOfRounds() {
+		return cardsDumped.length;
+	}
+
+	public int getCardsDumped(int round) {
+		return cardsDumped[round];
+	}
+
+	public int getCardsDrawn(int round) {
+		return cardsDrawn[round];
+	}
+
+	/*
+	 * Returns true if these are the rules of the standard game, which the headless engine plays by.
+	 */
+	public Boolean isStandard() {
+		return Arrays.equals(cardsDumped, STANDARD.cardsDumped) && Arrays.equals(cardsDrawn, STANDARD.cardsDrawn);
+	}
+
+	/*
+	 * Throws an InvalidGameParameterException if a player dealt the given number of cards would run out
+	 * of cards to dump.
+	 */
+	public void checkHandSize(int cardsDealt) {
+		int handSize = cardsDealt;
+
+		for (int i = 0; i < cardsDumped.length; ++i) {
+			if (cardsDumped[i] > handSize)
+				throw new InvalidGameParameterException("Players only have " + handSize + " cards left to dump in round " + (i + 1));
+
+			handSize += cardsDrawn[i] - cardsDumped[i];
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder str = new StringBuilder();
+
+		for (int i = 0; i < cardsDumped.length; ++i) {
+			if (i > 0)
+				str.append(", ");
+			str.append(cardsDumped[i]).append('/').append(cardsDrawn[i]);
+		}
+		return str.toString();
+	}
+}
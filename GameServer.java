@@ -1,33 +1,256 @@
 import java.io.FileNotFoundException;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
 
+/*
+ * Usage: java GameServer [rollouts] [seed] [verify] [virtual] [async | async-drop | async-spill | async-durable | journal] [pile-deltas]
+ *                         [roll-kb=<size>] [roll-minutes=<age>] [gzip] [keep-days=<days>] [metrics]
+ * If a positive number of rollouts is given, each player's estimated win probability is logged after the
+ * cards are dealt and after each turn. If a seed is given, the first table is played with it and every
+ * following table with the next seed, so that a logged game can be replayed. If "verify" is given, the
+ * hands reported by clients are checked against the server's copies on every turn. If "virtual" is given,
+ * tables and players run on virtual threads when the JVM supports them. The async options write the logs on
+ * a background thread that all the tables share, and differ in what happens when logging outpaces the disk:
+ * "async" waits for the writer, "async-drop" drops lines and "async-spill" queues them without limit, while
+ * "async-durable" waits like "async" and also forces every batch of lines to disk. See LogMode. If "journal"
+ * is given, every table is recorded in a binary journal instead of a text log, see GameJournalTool. If
+ * "pile-deltas" is given, the pile is logged in full once per round and only its changes otherwise, see
+ * PileDeltaTool. The last four options rotate the logs, see LogRotation: a log moves on to a new segment once
+ * its current one reaches the given size or age, "gzip" compresses closed segments and logs are deleted once
+ * they are older than the given number of days. If "metrics" is given, the latency of every phase of a game
+ * and of every command sent to a client, the traffic with the clients and the number of active tables and
+ * players are published over JMX as ColorGame:type=GameMetrics, see GameMetrics.
+ *
+ * The server keeps accepting connections until it is stopped. A single selector thread accepts connections,
+ * negotiates their wire format and holds them while they wait for a seat, so a waiting connection costs a
+ * socket and a few bytes but no thread. Players are seated in the order their handshakes complete. Once a
+ * table is full its connections are switched to blocking mode and handed to the TableManager, which plays
+ * the games of all the full tables at the same time.
+ */
 public class GameServer {
-	
+
 	private static final int PORT = 9231;
+	private static final int BACKLOG = 1024;
+	private static final String START_FILE = "./src/start.txt";
+
+	private final Selector selector;
+	private final ServerSocketChannel serverChannel;
+	private final int seatsPerTable;
+	private final Set<PendingConnection> waiting = new LinkedHashSet<>();	// Handshake done, in the order seats are given out
+	private final TableManager tables;
+
+
+	// ______________PUBLIC______________
+
+	/*
+	 * Creates a server listening on the given port that seats its players at the given tables.
+	 */
+	public GameServer(int port, TableManager tables) throws IOException {
+		this.tables = tables;
+		this.seatsPerTable = tables.getSeatsPerTable();
+
+		selector = Selector.open();
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.bind(new InetSocketAddress(port), BACKLOG);
+		serverChannel.configureBlocking(false);
+		serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+	}
+
+	/*
+	 * Runs the selector loop. Does not return unless the selector fails.
+	 */
+	public void serve() throws IOException {
+		System.out.println("Server waiting for players to connect\n");
+
+		while (true) {
+			selector.select();
+
+			Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+			while (keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+
+				if (!key.isValid())
+					continue;
+
+				if (key.isAcceptable()) {
+					acceptConnections();
+				}
+				else {
+					handleConnection(key);
+				}
+			}
+			seatWaitingPlayers();
+		}
+	}
+
+
+	// ______________PRIVATE______________
+
+	/*
+	 * Accepts every pending connection and waits for their hellos.
+	 */
+	private void acceptConnections() throws IOException {
+		SocketChannel channel;
+
+		while ((channel = serverChannel.accept()) != null) {
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			channel.register(selector, SelectionKey.OP_READ, new PendingConnection(channel));
+		}
+	}
+
+	/*
+	 * Moves the handshake of a connection forward. Connections that have finished their handshake are only
+	 * watched so that they can be dropped if the client goes away before it gets a seat.
+	 */
+	private void handleConnection(SelectionKey key) {
+		PendingConnection connection = (PendingConnection) key.attachment();
+
+		try {
+			if (connection.isHandshakeDone()) {
+				// Clients send nothing while they wait for the game to start, so the client either hung up
+				// or broke the protocol
+				dropConnection(key, connection);
+				return;
+			}
+
+			Boolean done = key.isWritable() ? connection.writeReply() : connection.readHello();
+			if (done) {
+				key.interestOps(SelectionKey.OP_READ);
+				waiting.add(connection);
+			}
+			else {
+				key.interestOps(connection.hasPendingReply() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+			}
+		}
+		catch (IOException e) {
+			dropConnection(key, connection);
+		}
+	}
+
+	private void dropConnection(SelectionKey key, PendingConnection connection) {
+		key.cancel();
+		waiting.remove(connection);
+		connection.close();
+	}
+
+	/*
+	 * Seats waiting players at new tables for as long as there are enough of them to fill one.
+	 */
+	private void seatWaitingPlayers() throws IOException {
+		if (waiting.size() < seatsPerTable)
+			return;
+
+		List<List<PendingConnection>> newTables = new ArrayList<>();
+		Iterator<PendingConnection> iter = waiting.iterator();
+
+		while (waiting.size() - newTables.size() * seatsPerTable >= seatsPerTable) {
+			List<PendingConnection> seats = new ArrayList<>(seatsPerTable);
+
+			for (int i = 0; i < seatsPerTable; ++i) {
+				PendingConnection connection = iter.next();
+				connection.getChannel().keyFor(selector).cancel();
+				seats.add(connection);
+			}
+			newTables.add(seats);
+		}
+
+		for (List<PendingConnection> seats : newTables) {
+			waiting.removeAll(seats);
+		}
+
+		// Cancelled keys are only removed from the selector by its next selection, and a channel cannot be
+		// switched to blocking mode while it is still registered.
+		selector.selectNow();
+
+		for (List<PendingConnection> seats : newTables) {
+			tables.startTable(seats);
+		}
+	}
+
+
+	/*
+	 * Returns the value of an option given as name=value.
+	 */
+	private static String getOptionValue(String option) {
+		return option.substring(option.indexOf('=') + 1);
+	}
+
+
+	// ______________MAIN______________
 
 	public static void main(String[] args) throws Exception {
-			
-		CardGame game;
+		int rollouts = (args.length > 0) ? Integer.parseInt(args[0]) : 0;
+		Long seed = (args.length > 1) ? Long.parseLong(args[1]) : null;
+		Boolean verifyHands = false;
+		Boolean useVirtualThreads = false;
+		LogMode logMode = LogMode.SYNCHRONOUS;
+		Boolean logPileDeltas = false;
+		long maxSegmentBytes = 0;
+		long maxSegmentMillis = 0;
+		Boolean compressLogs = false;
+		int retentionDays = 0;
+		Boolean enableMetrics = false;
+		
+		for (int i = 2; i < args.length; ++i) {
+			if (args[i].equalsIgnoreCase("verify")) 
+				verifyHands = true;
+			else if (args[i].equalsIgnoreCase("virtual")) 
+				useVirtualThreads = true;
+			else if (args[i].equalsIgnoreCase("async")) 
+				logMode = LogMode.BLOCK;
+			else if (args[i].equalsIgnoreCase("async-drop")) 
+				logMode = LogMode.DROP;
+			else if (args[i].equalsIgnoreCase("async-spill")) 
+				logMode = LogMode.SPILL;
+			else if (args[i].equalsIgnoreCase("async-durable")) 
+				logMode = LogMode.DURABLE;
+			else if (args[i].equalsIgnoreCase("journal")) 
+				logMode = LogMode.JOURNAL;
+			else if (args[i].equalsIgnoreCase("pile-deltas")) 
+				logPileDeltas = true;
+			else if (args[i].startsWith("roll-kb=")) 
+				maxSegmentBytes = 1024 * Long.parseLong(getOptionValue(args[i]));
+			else if (args[i].startsWith("roll-minutes=")) 
+				maxSegmentMillis = TimeUnit.MINUTES.toMillis(Long.parseLong(getOptionValue(args[i])));
+			else if (args[i].equalsIgnoreCase("gzip")) 
+				compressLogs = true;
+			else if (args[i].startsWith("keep-days=")) 
+				retentionDays = Integer.parseInt(getOptionValue(args[i]));
+			else if (args[i].equalsIgnoreCase("metrics")) 
+				enableMetrics = true;
+			else 
+				System.err.println("Unknown option: " + args[i]);
+		}
+
+		GameServer server;
 		try {
-			game = new CardGame("./src/start.txt");
+			LogRotation logRotation = new LogRotation(maxSegmentBytes, maxSegmentMillis, compressLogs, retentionDays);
+			GameMetrics metrics = GameMetrics.DISABLED;
+			if (enableMetrics) {
+				metrics = new GameMetrics();
+				metrics.register();
+			}
+			server = new GameServer(PORT, new TableManager(START_FILE, rollouts, seed, verifyHands, GameThreads.create(useVirtualThreads), 
+														   logMode, logPileDeltas, logRotation, metrics));
 		}
-		catch(FileNotFoundException | InvalidGameParameterException e) {
+		catch(FileNotFoundException | InvalidGameParameterException | IllegalArgumentException | JMException e) {
 			System.err.println(e.getMessage());
 			return;
 		}
-		
-		try (ServerSocket welcomeSocket = new ServerSocket(PORT);) {
-			System.out.println("Server waiting for players to connect\n");
-		    int currentPlayers = 0;
-		    int totalPlayers = game.getNumberOfPlayers();
-		    
-		    while(currentPlayers < totalPlayers) {
-		    	Socket newPlayerSocket = welcomeSocket.accept();  
-		    	game.addPlayer(newPlayerSocket);
-	            ++currentPlayers;
-		    }
-		}	
-		game.run();
+		server.serve();
 	}
 }
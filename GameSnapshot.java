@@ -0,0 +1,120 @@
+/*
+ * What a single player can see of an in-progress game: their own hand, the selected suit and the open
+ * pile, along with the rules and how far the game has got. Turns are numbered from 0 across all rounds,
+ * so after the first round turnsCompleted is equal to the number of players. The hand and pile are copied, so a 
+ * snapshot does not change as the game goes on and can be read by multiple threads.
+ */
+public class GameSnapshot {
+	
+	private final int numOfDecks;
+	private final int numOfPlayers;
+	private final GameRules rules;
+	private final int seat;				// Turn of the player, starting from 0
+	private final int turnsCompleted;
+	private final Suit selectedSuit;
+	private final CardMultiset hand;
+	private final CardMultiset pile;
+	
+	public GameSnapshot(int numOfDecks, int numOfPlayers, int seat, int turnsCompleted, Suit selectedSuit,
+						Iterable<Card> hand, Iterable<Card> pile) {
+		this(numOfDecks, numOfPlayers, GameRules.STANDARD, seat, turnsCompleted, selectedSuit, hand, pile);
+	}
+	
+	public GameSnapshot(int numOfDecks, int numOfPlayers, GameRules rules, int seat, int turnsCompleted, Suit selectedSuit,
+						Iterable<Card> hand, Iterable<Card> pile) {
+		if (numOfDecks < 1 || numOfDecks > CardGame.DECK_LIMIT) 
+			throw new IllegalArgumentException("Invalid number of decks: " + numOfDecks);
+		if (numOfPlayers < 2 || numOfPlayers > 4) 
+			throw new IllegalArgumentException("Invalid number of players: " + numOfPlayers);
+		if (rules == null)
+			throw new IllegalArgumentException("Rules cannot be null");
+		if (seat < 0 || seat >= numOfPlayers)
+			throw new IllegalArgumentException("Invalid seat: " + seat);
+		if (turnsCompleted < 0 || turnsCompleted > rules.getNumberOfRounds() * numOfPlayers)
+			throw new IllegalArgumentException("Invalid number of completed turns: " + turnsCompleted);
+		if (selectedSuit == null)
+			throw new IllegalArgumentException("Selected suit cannot be null");
+		
+		this.numOfDecks = numOfDecks;
+		this.numOfPlayers = numOfPlayers;
+		this.rules = rules;
+		this.seat = seat;
+		this.turnsCompleted = turnsCompleted;
+		this.selectedSuit = selectedSuit;
+		this.hand = toMultiset(hand);
+		this.pile = toMultiset(pile);
+	}
+	
+	public int getNumberOfDecks() {
+		return numOfDecks;
+	}
+	
+	public int getNumberOfPlayers() {
+		return numOfPlayers;
+	}
+	
+	public GameRules getRules() {
+		return rules;
+	}
+	
+	public int getSeat() {
+		return seat;
+	}
+	
+	public int getTurnsCompleted() {
+		return turnsCompleted;
+	}
+	
+	public Suit getSelectedSuit() {
+		return selectedSuit;
+	}
+	
+	public CardMultiset getHand() {
+		return new CardMultiset(hand);
+	}
+	
+	public CardMultiset getPile() {
+		return new CardMultiset(pile);
+	}
+	
+	/*
+	 * Returns the number of cards in the hand of the player with the given seat. Every turn the player
+	 * has taken changes their hand by the cards drawn less the cards dumped in that round.
+	 */
+	public int getHandSize(int aSeat) {
+		int handSize = (numOfDecks * Deck.DECK_SIZE) / numOfPlayers;
+		
+		for (int round = 0; round < rules.getNumberOfRounds() && round * numOfPlayers + aSeat < turnsCompleted; ++round) {
+			handSize += rules.getCardsDrawn(round) - rules.getCardsDumped(round);
+		}
+		return handSize;
+	}
+	
+	/*
+	 * Returns the cards that this player cannot see i.e the cards in the other players' hands.
+	 */
+	public CardMultiset getUnseenCards() {
+		CardMultiset unseen = new CardMultiset();
+		for (int i = 0; i < numOfDecks; ++i) {
+			for (Card card : Card.standardDeck()) {
+				unseen.addCard(card);
+			}
+		}
+		
+		if (!unseen.removeCards(hand) || !unseen.removeCards(pile))
+			throw new IllegalStateException("Hand and pile hold more copies of a card than there are decks");
+		
+		return unseen;
+	}
+	
+	
+	// ______________PRIVATE______________
+	
+	private static CardMultiset toMultiset(Iterable<Card> cards) {
+		CardMultiset multiset = new CardMultiset();
+		for (Card card : cards) {
+			multiset.addCard(card);
+		}
+		return multiset;
+	}
+}
@@ -0,0 +1,52 @@
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/*
+ * A connection between a PlayerThread and its PlayerClient that GameProtocol messages are exchanged over.
+ * A message is written field by field and sent with endMessage(). The reader must read the fields in the
+ * same order and with the same types that they were written in.
+ */
+interface GameStream extends Closeable, Flushable {
+
+	WireFormat getWireFormat();
+
+	void writeCommand(GameProtocol cmd) throws IOException;
+
+	void writeInt(int value) throws IOException;
+
+	void writeLong(long value) throws IOException;
+
+	void writeSuit(Suit suit) throws IOException;
+
+	void writeCard(Card card) throws IOException;
+
+	void writeCards(CardCollection cards) throws IOException;
+
+	void writeString(String str) throws IOException;
+
+	/*
+	 * Sends all the fields written since the last call as a single message.
+	 */
+	void endMessage() throws IOException;
+
+	/*
+	 * Ends the current message without sending it. Queued messages are sent together by the next
+	 * flush() or endMessage(), which lets several requests go out before any reply is read.
+	 */
+	void queueMessage() throws IOException;
+
+	GameProtocol readCommand() throws IOException, ClassNotFoundException;
+
+	int readInt() throws IOException, ClassNotFoundException;
+
+	long readLong() throws IOException, ClassNotFoundException;
+
+	Suit readSuit() throws IOException, ClassNotFoundException;
+
+	Card readCard() throws IOException, ClassNotFoundException;
+
+	CardCollection readCards() throws IOException, ClassNotFoundException;
+
+	String readString() throws IOException, ClassNotFoundException;
+}
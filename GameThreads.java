@@ -0,0 +1,61 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/*
+ * Creates the threads that tables and players are run on. Players spend nearly all their time blocked on
+ * their client's socket, so on a JVM with virtual threads (Java 21 or later) they can be run on virtual
+ * threads instead of one platform thread each. The game is built for Java 17, so virtual threads are
+ * looked up reflectively, and platform threads are used wherever they are not available.
+ */
+public final class GameThreads {
+
+	private static final ThreadFactory VIRTUAL_THREADS = lookupVirtualThreadFactory();
+
+	private GameThreads() {}
+
+
+	// ______________PUBLIC______________
+
+	public static Boolean areVirtualThreadsSupported() {
+		return VIRTUAL_THREADS != null;
+	}
+
+	/*
+	 * Returns a factory for ordinary platform threads.
+	 */
+	public static ThreadFactory platform() {
+		return Thread::new;
+	}
+
+	/*
+	 * Returns a factory for virtual threads if they are asked for and supported, otherwise a factory for
+	 * platform threads. A warning is printed if virtual threads were asked for but are not supported.
+	 */
+	public static ThreadFactory create(Boolean useVirtualThreads) {
+		if (!useVirtualThreads)
+			return platform();
+
+		if (!areVirtualThreadsSupported()) {
+			System.err.println("Virtual threads need Java 21 or later, using platform threads instead");
+			return platform();
+		}
+		return VIRTUAL_THREADS;
+	}
+
+
+	// ______________PRIVATE______________
+
+	/*
+	 * Returns Thread.ofVirtual().factory(), or null if this JVM doesn't have virtual threads.
+	 */
+	private static ThreadFactory lookupVirtualThreadFactory() {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+			return (ThreadFactory) factory.invoke(builder);
+		}
+		catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+}
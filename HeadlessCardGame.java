@@ -0,0 +1,200 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/*
+ * Plays a game with in-process Player implementations instead of PlayerThreads talking to clients over
+ * sockets. Follows the same rules as CardGame: cards are dealt one at a time until a Jack decides the
+ * first player, who then selects the suit and takes the first turn. The pile is reset and dealt out 
+ * equally, every player dumps five cards in the first round, and in the second round every player dumps
+ * two cards and picks two cards from the pile. Nothing is logged, the outcome is returned as a GameResult.
+ * 
+ * Every game is played with its own SplittableRandom, so a game can be replayed exactly from the seed
+ * in its result. The pile and turn order are reused from game to game, so a HeadlessCardGame must only play one game at
+ * a time.
+ * 
+ * Usage: java HeadlessCardGame [games] [decks] [players]
+ */
+
+public class HeadlessCardGame {
+	
+	private final int numOfDecks;
+	private final int numOfDeals;
+	private final List<Player> players;
+	private final SplittableRandom seeds;		// Generates the seed of each game
+	private final CardCollection pile;
+	private final List<Player> turnOrder;
+	
+	
+	// ______________PUBLIC______________
+	
+	public HeadlessCardGame(int numOfDecks, List<Player> players) {
+		this(numOfDecks, players, new SplittableRandom().nextLong());
+	}
+	
+	/*
+	 * The seed determines the seeds of all the games played, so the same sequence of games is played
+	 * every time for the same seed.
+	 */
+	public HeadlessCardGame(int numOfDecks, List<Player> players, long seed) {
+		if (numOfDecks < 1 || numOfDecks > CardGame.DECK_LIMIT) 
+			throw new InvalidGameParameterException("Invalid number of decks: " + numOfDecks);
+		
+		if (players == null || players.size() < 2 || players.size() > 4) 
+			throw new InvalidGameParameterException("Invalid number of players!");
+		
+		this.numOfDecks = numOfDecks;
+		this.numOfDeals = (numOfDecks * Deck.DECK_SIZE) / players.size();
+		this.players = new ArrayList<>(players);
+		this.seeds = new SplittableRandom(seed);
+		this.pile = new CardCollection(numOfDecks, CardGame.DECK_LIMIT, CardStorage.BYTE_ARRAY);
+		this.turnOrder = new ArrayList<>(players.size());
+	}
+	
+	/*
+	 * Plays a whole game and returns its result. Each call plays a new game.
+	 */
+	public GameResult play() {
+		return play(seeds.nextLong());
+	}
+	
+	/*
+	 * Plays the game determined by the given seed and returns its result.
+	 */
+	public GameResult play(long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		int numOfPlayers = players.size();
+		turnOrder.clear();
+		turnOrder.addAll(players);
+		
+		pile.clear();
+		pile.addDecks(numOfDecks);
+		pile.shuffle(random);
+		
+		// Place the first player at the start of the turn order, the rest keep their order
+		Player firstPlayer = turnOrder.remove(determineFirstPlayer());
+		turnOrder.add(0, firstPlayer);
+		
+		Suit selectedSuit = firstPlayer.selectSuit(random);
+		if (selectedSuit == null)
+			throw new IllegalStateException(firstPlayer.getName() + " selected a null suit");
+		
+		CardCollection[] hands = dealCards(selectedSuit, random);
+		
+		// Cards that could not be dealt out equally stay in the pile that players dump into
+		CardMultiset openPile = new CardMultiset(pile);
+		
+		playTurns(turnOrder, hands, openPile, selectedSuit, GameRules.STANDARD, 0);
+		
+		List<String> names = new ArrayList<>(numOfPlayers);
+		int[] scores = new int[numOfPlayers];
+		for (int i = 0; i < numOfPlayers; ++i) {
+			names.add(turnOrder.get(i).getName());
+			scores[i] = hands[i].score(selectedSuit);
+		}
+		return new GameResult(seed, selectedSuit, names, scores);
+	}
+	
+	
+	// ______________PACKAGE______________
+	
+	/*
+	 * Plays the turns of every round of the given rules starting from the given turn, where turns are
+	 * numbered from 0 across all rounds i.e turn numOfPlayers is the first turn of the second round.
+	 * Players and hands are given in order of turns. Also used to play out the rest of a game from a snapshot.
+	 */
+	static void playTurns(List<Player> turnOrder, CardCollection[] hands, CardMultiset openPile, Suit selectedSuit, 
+						  GameRules rules, int fromTurn) {
+		int numOfPlayers = turnOrder.size();
+		
+		for (int turn = fromTurn; turn < rules.getNumberOfRounds() * numOfPlayers; ++turn) {
+			int i = turn % numOfPlayers;
+			int round = turn / numOfPlayers;
+			
+			dump(turnOrder.get(i), hands[i], openPile, selectedSuit, rules.getCardsDumped(round));
+			if (rules.getCardsDrawn(round) > 0) {
+				pick(turnOrder.get(i), hands[i], openPile, selectedSuit, rules.getCardsDrawn(round));
+			}
+		}
+	}
+	
+	
+	// ______________PRIVATE______________
+	
+	/*
+	 * Deals cards from the pile to each player in turn until a Jack is drawn and returns the index
+	 * of the player that drew it.
+	 */
+	private int determineFirstPlayer() {
+		for (int i = 0; i < numOfDeals; ++i) {
+			for (int j = 0; j < players.size(); ++j) {
+				if (pile.drawTop().getCardType() == CardType.JACK) 
+					return j;
+			}
+		}
+		throw new IllegalStateException("No Jack was drawn while determining the first player");
+	}
+	
+	/*
+	 * Resets the pile, shuffles it and splits it into the players' hands, in order of their turns.
+	 */
+	private CardCollection[] dealCards(Suit selectedSuit, SplittableRandom random) {
+		pile.clear();
+		pile.addDecks(numOfDecks);
+		
+		CardCollection[] hands = pile.deal(players.size(), numOfDeals, CardStorage.SORTED, random);
+		for (CardCollection hand : hands) {
+			hand.indexBySuit(selectedSuit);
+		}
+		return hands;
+	}
+	
+	private static void dump(Player player, CardCollection hand, CardMultiset openPile, Suit selectedSuit, int numOfCards) {
+		int handSize = hand.size();
+		CardCollection dumped = player.dumpCards(hand, selectedSuit, numOfCards);
+		
+		if (dumped.size() != numOfCards || hand.size() != handSize - numOfCards)
+			throw new IllegalStateException(player.getName() + " did not dump " + numOfCards + " cards from their hand");
+		
+		openPile.addCardCollection(dumped);
+	}
+	
+	private static void pick(Player player, CardCollection hand, CardMultiset openPile, Suit selectedSuit, int numOfCards) {
+		CardCollection picked = player.pickCards(openPile, hand, selectedSuit, numOfCards);
+		
+		if (picked.size() != numOfCards)
+			throw new IllegalStateException(player.getName() + " did not pick " + numOfCards + " cards from the pile");
+		if (!openPile.removeCards(picked))
+			throw new IllegalStateException(player.getName() + " picked cards that are not in the pile");
+		
+		hand.addCardCollection(picked);
+	}
+	
+	
+	// ______________MAIN______________
+	
+	/*
+	 * Plays the given number of games with StrategicPlayers and reports the throughput.
+	 */
+	public static void main(String[] args) {
+		int numOfGames = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int numOfDecks = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		int numOfPlayers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+		
+		List<Player> players = new ArrayList<>(numOfPlayers);
+		for (int i = 0; i < numOfPlayers; ++i) {
+			players.add(new StrategicPlayer(String.valueOf((char) ('A' + i))));
+		}
+		HeadlessCardGame game = new HeadlessCardGame(numOfDecks, players);
+		
+		int ties = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < numOfGames; ++i) {
+			if (game.play().isTied()) 
+				ties++;
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		
+		System.out.printf("Played %d games in %.2f s (%.0f games/s), %d tied%n", numOfGames, seconds, numOfGames / seconds, ties);
+	}
+}
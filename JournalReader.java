@@ -0,0 +1,108 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/*
+ * Reads the records of a GameJournal one at a time. Records of unknown types are skipped, so journals
+ * written by newer versions can still be read.
+ */
+class JournalReader {
+
+	private final ByteBuffer data;
+	private ByteBuffer payload = null;
+	private JournalRecord type = null;
+
+
+	JournalReader(Path path) throws IOException {
+		data = ByteBuffer.wrap(Files.readAllBytes(path));
+
+		byte[] magic = new byte[GameJournal.MAGIC.length];
+		if (data.remaining() < magic.length)
+			throw new IOException(path + " is not a game journal");
+
+		data.get(magic);
+		if (!Arrays.equals(magic, GameJournal.MAGIC))
+			throw new IOException(path + " is not a game journal");
+	}
+
+
+	// ______________PACKAGE______________
+
+	/*
+	 * Moves to the next record. Returns false at the end of the journal.
+	 */
+	Boolean next() throws IOException {
+		while (data.hasRemaining()) {
+			if (data.remaining() < 3)
+				throw new IOException("Journal ends in the middle of a record");
+
+			int code = data.get() & 0xFF;
+			int length = data.getShort() & 0xFFFF;
+			if (data.remaining() < length)
+				throw new IOException("Journal ends in the middle of a record");
+
+			payload = data.slice();
+			payload.limit(length);
+			data.position(data.position() + length);
+
+			type = JournalRecord.fromCode(code);
+			if (type != null)
+				return true;
+		}
+		return false;
+	}
+
+	JournalRecord getType() {
+		return type;
+	}
+
+	int readByte() throws IOException {
+		return read(1).get() & 0xFF;
+	}
+
+	int readInt() throws IOException {
+		return read(4).getInt();
+	}
+
+	long readLong() throws IOException {
+		return read(8).getLong();
+	}
+
+	String readString() throws IOException {
+		int length = read(2).getShort() & 0xFFFF;
+		byte[] bytes = new byte[length];
+		read(length).get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	CardCollection readCards() throws IOException {
+		int count = read(2).getShort() & 0xFFFF;
+		ByteBuffer bytes = read(count);
+
+		CardCollection cards = new CardCollection(CardStorage.BYTE_ARRAY);
+		for (int i = 0; i < count; ++i) {
+			int ordinal = bytes.get() & 0xFF;
+			if (ordinal >= Card.NUM_OF_CARDS)
+				throw new IOException("Invalid card in " + type + " record: " + ordinal);
+
+			cards.addCard(Card.fromOrdinal(ordinal));
+		}
+		return cards;
+	}
+
+
+	// ______________PRIVATE______________
+
+	/*
+	 * Checks that the current record has the given number of bytes left and returns the record.
+	 */
+	private ByteBuffer read(int length) throws IOException {
+		if (payload == null || payload.remaining() < length)
+			throw new IOException(type + " record is too short");
+
+		return payload;
+	}
+}
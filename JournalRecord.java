@@ -0,0 +1,52 @@
+/*
+ * Types of the records in a GameJournal. Every record is written as a one byte type, a two byte length and
+ * the payload described below. Seats are numbers in the order of turns starting from 0, cards are written
+ * as a two byte count followed by one byte per card and strings as a two byte length followed by UTF-8.
+ * The type is written as the code given to it below rather than its position, so that journals written
+ * before a type was added can still be read. Codes must never be changed or reused.
+ */
+public enum JournalRecord {
+	GAME(0),				// Number of decks, number of players, eight byte seed, number of rounds and the cards dumped and drawn in each
+	PLAYERS(1),				// Number of players and their names in the order they connected in
+	FIRST_PLAYER_DRAW(2),	// A card dealt while determining the first player and the player it was dealt to, in the order they connected in
+	SUIT(3),				// The suit selected by the first player
+	DEAL(4),				// A seat and the hand dealt to it
+	OPEN_PILE(5),			// The cards left in the open pile after dealing
+	WIN_ESTIMATE(6),		// A seat and its estimated win probability
+	TURN(7),				// A seat and the round whose turn it starts
+	CLIENT_HAND(8),			// A seat and a hand reported by its client that doesn't match the server's copy
+	DUMP(9),				// A seat and the cards it dumped into the pile
+	PICK(10),				// A seat and the cards it drew from the pile
+	SCORE(11),				// A seat and its four byte final score
+	RESULT(12),				// The seat of the winner, or 255 if the game is tied
+	LEAVE(13);				// A seat whose client broke the protocol or disconnected during its turn and the reason. It plays no more turns and is scored as -1
+
+	private static final JournalRecord[] TYPES = new JournalRecord[256];
+
+	static {
+		for (JournalRecord type : values()) {
+			if (TYPES[type.code] != null)
+				throw new IllegalStateException("Journal record code " + type.code + " is used twice");
+
+			TYPES[type.code] = type;
+		}
+	}
+
+	private final int code;
+
+
+	private JournalRecord(int code) {
+		this.code = code;
+	}
+
+	/*
+	 * Returns the record type with the given code, or null if the code is unknown.
+	 */
+	public static JournalRecord fromCode(int code) {
+		return (code >= 0 && code < TYPES.length) ? TYPES[code] : null;
+	}
+
+	public int getCode() {
+		return code;
+	}
+}
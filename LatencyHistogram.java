@@ -0,0 +1,107 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Counts latencies in buckets whose width grows with the value, in the same way as an HdrHistogram. Values
+ * below 256 nanoseconds get a bucket each, and every following power of two is split into 128 buckets, so a
+ * value is never off by more than 1% however large it is. Recording is a single atomic increment and never
+ * allocates, so any number of threads can record at the same time. Percentiles are read from a snapshot of
+ * the buckets, which may miss values recorded while it is taken.
+ */
+class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 8;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+	private static final long MAX_TRACKED_NANOS = (1L << 36) - 1;		// About 68 seconds, larger values are counted in the last bucket
+
+	private final AtomicLongArray counts = new AtomicLongArray(getIndex(MAX_TRACKED_NANOS) + 1);
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+
+	// ______________PACKAGE______________
+
+	void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		counts.incrementAndGet(getIndex(Math.min(nanos, MAX_TRACKED_NANOS)));
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	/*
+	 * Returns the count, mean, percentiles and maximum of the latencies recorded so far.
+	 */
+	LatencySnapshot getSnapshot() {
+		long[] snapshot = new long[counts.length()];
+		long count = 0;
+		for (int i = 0; i < snapshot.length; ++i) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+
+		if (count == 0)
+			return new LatencySnapshot(0, 0, 0, 0, 0, 0, 0);
+
+		long max = maxNanos.get();
+		return new LatencySnapshot(count, totalNanos.sum() / count, getValueAtPercentile(snapshot, count, 50, max),
+								   getValueAtPercentile(snapshot, count, 90, max), getValueAtPercentile(snapshot, count, 99, max),
+								   getValueAtPercentile(snapshot, count, 99.9, max), max);
+	}
+
+	/*
+	 * Forgets every latency recorded so far. Values recorded while resetting may be kept or lost.
+	 */
+	void reset() {
+		for (int i = 0; i < counts.length(); ++i) {
+			counts.set(i, 0);
+		}
+		totalNanos.reset();
+		maxNanos.reset();
+	}
+
+
+	// ______________PRIVATE______________
+
+	/*
+	 * Returns the bucket of the given value. Values from 2^m to 2^(m+1) - 1, for m of 8 or more, are counted
+	 * in 128 buckets of width 2^(m-7), which follow the buckets of the previous power of two.
+	 */
+	private static int getIndex(long nanos) {
+		if (nanos < SUB_BUCKET_COUNT)
+			return (int) nanos;
+
+		int shift = 63 - Long.numberOfLeadingZeros(nanos) - (SUB_BUCKET_BITS - 1);
+		return shift * SUB_BUCKET_HALF + (int) (nanos >>> shift);
+	}
+
+	/*
+	 * Returns the largest value that is counted in the given bucket.
+	 */
+	private static long getHighestValue(int index) {
+		if (index < SUB_BUCKET_COUNT)
+			return index;
+
+		int shift = index / SUB_BUCKET_HALF - 1;
+		long subBucket = index - shift * SUB_BUCKET_HALF;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	/*
+	 * Returns the largest value of the bucket that the given percentile falls in, but no more than the
+	 * largest value recorded.
+	 */
+	private static long getValueAtPercentile(long[] snapshot, long count, double percentile, long max) {
+		long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+		long seen = 0;
+		for (int i = 0; i < snapshot.length; ++i) {
+			seen += snapshot[i];
+			if (seen >= rank)
+				return Math.min(getHighestValue(i), max);
+		}
+		return max;
+	}
+}
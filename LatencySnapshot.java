@@ -0,0 +1,68 @@
+/*
+ * The latencies recorded by a LatencyHistogram at one point in time. Values are kept in nanoseconds and
+ * returned in microseconds, which is how they are shown by JMX clients such as JConsole.
+ */
+public final class LatencySnapshot {
+
+	private final long count;
+	private final long meanNanos;
+	private final long p50Nanos;
+	private final long p90Nanos;
+	private final long p99Nanos;
+	private final long p999Nanos;
+	private final long maxNanos;
+
+
+	// ______________PUBLIC______________
+
+	public LatencySnapshot(long count, long meanNanos, long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+		this.count = count;
+		this.meanNanos = meanNanos;
+		this.p50Nanos = p50Nanos;
+		this.p90Nanos = p90Nanos;
+		this.p99Nanos = p99Nanos;
+		this.p999Nanos = p999Nanos;
+		this.maxNanos = maxNanos;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getMeanMicros() {
+		return toMicros(meanNanos);
+	}
+
+	public double getP50Micros() {
+		return toMicros(p50Nanos);
+	}
+
+	public double getP90Micros() {
+		return toMicros(p90Nanos);
+	}
+
+	public double getP99Micros() {
+		return toMicros(p99Nanos);
+	}
+
+	public double getP999Micros() {
+		return toMicros(p999Nanos);
+	}
+
+	public double getMaxMicros() {
+		return toMicros(maxNanos);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count %d, mean %.1f us, p50 %.1f us, p90 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+							 count, getMeanMicros(), getP50Micros(), getP90Micros(), getP99Micros(), getP999Micros(), getMaxMicros());
+	}
+
+
+	// ______________PRIVATE______________
+
+	private static double toMicros(long nanos) {
+		return nanos / 1000.0;
+	}
+}
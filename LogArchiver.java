@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Compresses closed log segments and deletes expired ones on a single background thread, so that neither
+ * slows down a game. The thread is only kept while there is work, and the JVM waits for queued work before
+ * it exits. A segment is compressed to a temporary file that is renamed once complete, so an interrupted
+ * compression never leaves a truncated .gz file behind. An existing .gz file is never replaced, the segment
+ * is left uncompressed instead.
+ */
+final class LogArchiver {
+
+	private static final long SWEEP_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);		// How often expired segments are looked for
+	private static final ExecutorService ARCHIVER = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+																		   runnable -> new Thread(runnable, "log archiver"));
+	private static long lastSweepMillis = 0;		// Only used by the archiver thread
+
+	private LogArchiver() {}
+
+
+	// ______________PACKAGE______________
+
+	/*
+	 * Queues a closed segment to be compressed, if the rotation asks for it, and expired segments of the
+	 * same directory to be deleted.
+	 */
+	static void archive(Path segment, LogRotation rotation) {
+		if (!rotation.isCompressing() && rotation.getRetentionDays() == 0)
+			return;
+
+		ARCHIVER.execute(() -> {
+			if (rotation.isCompressing()) {
+				compress(segment);
+			}
+			if (rotation.getRetentionDays() > 0) {
+				deleteExpired(segment.getParent(), rotation.getRetentionDays());
+			}
+		});
+	}
+
+
+	// ______________PRIVATE______________
+
+	private static void compress(Path segment) {
+		Path compressed = segment.resolveSibling(segment.getFileName() + ".gz");
+		Path partial = segment.resolveSibling(segment.getFileName() + ".gz.partial");
+
+		try {
+			if (Files.exists(compressed)) {
+				System.err.println("Log segment " + segment + " was not compressed, " + compressed + " already exists!");
+				return;
+			}
+
+			try (InputStream in = Files.newInputStream(segment);
+				 OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial))) {
+				in.transferTo(out);
+			}
+			Files.move(partial, compressed, StandardCopyOption.ATOMIC_MOVE);
+			Files.delete(segment);
+		}
+		catch (IOException e) {
+			System.err.println("Log segment " + segment + " could not be compressed!");
+			e.printStackTrace();
+		}
+	}
+
+	/*
+	 * Deletes the game log segments in the directory that were last written to more than the given number
+	 * of days ago. Only files named like the logs of a LogRotation are considered.
+	 */
+	private static void deleteExpired(Path directory, int retentionDays) {
+		long now = System.currentTimeMillis();
+		if (now - lastSweepMillis < SWEEP_INTERVAL_MILLIS)
+			return;
+
+		lastSweepMillis = now;
+		long oldestKeptMillis = now - TimeUnit.DAYS.toMillis(retentionDays);
+
+		try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, LogRotation.FILE_PREFIX + "*.{txt,txt.gz}")) {
+			for (Path segment : segments) {
+				if (Files.getLastModifiedTime(segment).toMillis() < oldestKeptMillis) {
+					Files.deleteIfExists(segment);
+				}
+			}
+		}
+		catch (IOException e) {
+			System.err.println("Expired log segments could not be deleted!");
+			e.printStackTrace();
+		}
+	}
+}
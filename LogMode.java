@@ -0,0 +1,12 @@
+/*
+ * Selects how a GameLogger writes its file. In the asynchronous modes lines are queued for a background
+ * writer, see AsyncLogWriter, and the modes differ in what logging does while the queue is full.
+ */
+public enum LogMode {
+	SYNCHRONOUS,		// Lines are written by the thread that logs them.
+	BLOCK,				// Asynchronous. Logging waits until the writer has made room in the queue. No line is ever lost.
+	DROP,				// Asynchronous. Lines logged while the queue is full are dropped and counted, and the count is logged at the end.
+	SPILL,				// Asynchronous. Lines logged while the queue is full are kept in an unbounded overflow list until the writer catches up.
+	DURABLE,			// Asynchronous. Same as BLOCK, but every batch of lines is forced to disk before the next one is written.
+	JOURNAL				// No text is written. The game is recorded in a binary GameJournal instead, which GameJournalTool renders as text.
+}
@@ -0,0 +1,74 @@
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/*
+ * How the logs of games that are kept for auditing are stored. A game's log is split into numbered segments
+ * once a segment reaches a size or an age, closed segments can be compressed with gzip on a background thread,
+ * and segments older than the retention period are deleted. Such logs are kept across restarts of the server,
+ * so they are named after the game's seed and the time the game was created, e.g. game-42-20240131-093005123.txt
+ * for a game created at 09:30:05.123 on 31 January 2024, rather than after the table number. A game played
+ * again with the same seed after a restart therefore gets a log of its own instead of overwriting the last one.
+ */
+public final class LogRotation {
+
+	public static final LogRotation NONE = new LogRotation(0, 0, false, 0);		// One uncompressed file per game, kept forever
+	static final String FILE_PREFIX = "game-";
+	private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSS").withZone(ZoneId.systemDefault());
+
+	private final long maxSegmentBytes;			// 0 if segments can be any size
+	private final long maxSegmentMillis;		// 0 if segments can be any age
+	private final Boolean compress;
+	private final int retentionDays;			// 0 if segments are kept forever
+
+
+	// ______________PUBLIC______________
+
+	public LogRotation(long maxSegmentBytes, long maxSegmentMillis, Boolean compress, int retentionDays) {
+		if (maxSegmentBytes < 0 || maxSegmentMillis < 0 || retentionDays < 0)
+			throw new IllegalArgumentException("Log rotation limits cannot be negative");
+
+		this.maxSegmentBytes = maxSegmentBytes;
+		this.maxSegmentMillis = maxSegmentMillis;
+		this.compress = compress;
+		this.retentionDays = retentionDays;
+	}
+
+	/*
+	 * Returns the name of the log file of the game played with the given seed that was created at the given
+	 * time, in milliseconds since the epoch.
+	 */
+	public static String getFileName(long seed, long createdMillis) {
+		return FILE_PREFIX + seed + "-" + TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(createdMillis)) + ".txt";
+	}
+
+	public long getMaxSegmentBytes() {
+		return maxSegmentBytes;
+	}
+
+	public long getMaxSegmentMillis() {
+		return maxSegmentMillis;
+	}
+
+	public Boolean isCompressing() {
+		return compress;
+	}
+
+	public int getRetentionDays() {
+		return retentionDays;
+	}
+
+	/*
+	 * Returns true if logs are split into segments, which are then numbered from 0.
+	 */
+	public Boolean isRolling() {
+		return maxSegmentBytes > 0 || maxSegmentMillis > 0;
+	}
+
+	/*
+	 * Returns false for NONE, i.e. if logs are written as they always have been.
+	 */
+	public Boolean isEnabled() {
+		return isRolling() || compress || retentionDays > 0;
+	}
+}
@@ -0,0 +1,146 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * The file or files that one log is written to. Text is buffered and written to the current segment, which
+ * is closed and replaced by the next one once it reaches the size or age limit of the log's rotation. Closed
+ * segments are handed to the LogArchiver. Segments are only switched between writes of the buffer, and the
+ * buffer only ever holds whole lines, so no line is split between two segments.
+ */
+class LogSegments {
+
+	private static final int BUFFER_SIZE = 8192;		// Characters, same as a PrintWriter
+
+	private final Path directory;
+	private final String fileName;
+	private final LogRotation rotation;
+	private final Charset charset = Charset.defaultCharset();
+	private final StringBuilder buffer = new StringBuilder();
+
+	private FileChannel channel;
+	private Path segment;
+	private int segmentNumber = 0;
+	private long segmentBytes;
+	private long segmentStartMillis;
+
+
+	/*
+	 * Opens the first segment of the log with the given file name. Without rolling the only segment is the
+	 * file itself, otherwise segments are numbered, e.g. game-42-20240131-093005123.0.txt, then .1.txt and
+	 * so on. A log that is kept for auditing never replaces an existing file, as it would be lost, so its
+	 * segments fail to open if their name is taken. Other logs replace the file of the last server run.
+	 */
+	LogSegments(String directory, String fileName, LogRotation rotation) throws IOException {
+		this.directory = Paths.get(directory);
+		this.fileName = fileName;
+		this.rotation = rotation;
+		openSegment();
+	}
+
+
+	// ______________PACKAGE______________
+
+	/*
+	 * Buffers the given text, which must end with a line separator, and writes the buffer once it is full.
+	 */
+	void append(CharSequence lines) throws IOException {
+		buffer.append(lines);
+		if (buffer.length() >= BUFFER_SIZE) {
+			flush();
+		}
+	}
+
+	/*
+	 * Writes the buffer to the current segment, first moving on to the next segment if this one is full
+	 * or old enough.
+	 */
+	void flush() throws IOException {
+		if (buffer.length() == 0)
+			return;
+
+		if (isSegmentFinished()) {
+			closeSegment();
+			++segmentNumber;
+			openSegment();
+		}
+
+		ByteBuffer bytes = charset.encode(CharBuffer.wrap(buffer));
+		buffer.setLength(0);
+		segmentBytes += bytes.remaining();
+		while (bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+	}
+
+	/*
+	 * Forces everything written so far to disk. Segments are forced when they are closed either way.
+	 */
+	void force() throws IOException {
+		channel.force(false);
+	}
+
+	/*
+	 * Writes the buffer and closes the last segment.
+	 */
+	void close() throws IOException {
+		try {
+			flush();
+		}
+		finally {
+			closeSegment();
+		}
+	}
+
+
+	// ______________PRIVATE______________
+
+	private Boolean isSegmentFinished() {
+		if (segmentBytes == 0)
+			return false;
+
+		long maxBytes = rotation.getMaxSegmentBytes();
+		long maxMillis = rotation.getMaxSegmentMillis();
+		return (maxBytes > 0 && segmentBytes >= maxBytes) ||
+			   (maxMillis > 0 && System.currentTimeMillis() - segmentStartMillis >= maxMillis);
+	}
+
+	private void openSegment() throws IOException {
+		segment = directory.resolve(getSegmentName());
+		if (rotation.isEnabled()) {
+			channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		}
+		else {
+			channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+									   StandardOpenOption.TRUNCATE_EXISTING);
+		}
+		segmentBytes = 0;
+		segmentStartMillis = System.currentTimeMillis();
+	}
+
+	private void closeSegment() throws IOException {
+		try {
+			channel.force(false);
+		}
+		finally {
+			channel.close();
+		}
+		LogArchiver.archive(segment, rotation);
+	}
+
+	private String getSegmentName() {
+		if (!rotation.isRolling())
+			return fileName;
+
+		int extension = fileName.lastIndexOf('.');
+		if (extension <= 0)
+			return fileName + "." + segmentNumber;
+
+		return fileName.substring(0, extension) + "." + segmentNumber + fileName.substring(extension);
+	}
+}
@@ -0,0 +1,64 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * The background thread that writes the lines queued in every AsyncLogWriter, so the logs of all the tables
+ * share a single thread however many games are played at once. A writer is scheduled when a line is queued
+ * in it, and the thread sleeps until one is, so an idle server costs no wakeups. Each visit writes at most one
+ * batch of a writer before the writer goes to the back of the queue, so a busy table cannot hold up the logs
+ * of the others.
+ */
+class LogWriterThread {
+
+	private static final LogWriterThread SHARED = new LogWriterThread();
+
+	private final ConcurrentLinkedQueue<AsyncLogWriter> scheduled = new ConcurrentLinkedQueue<>();
+	private final Thread thread;
+
+
+	private LogWriterThread() {
+		thread = new Thread(this::writeLogs, "log writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+
+	// ______________PACKAGE______________
+
+	static LogWriterThread getShared() {
+		return SHARED;
+	}
+
+	/*
+	 * Queues a visit to the given writer and wakes the thread. A writer must not be scheduled again before
+	 * its visit has started.
+	 */
+	void schedule(AsyncLogWriter writer) {
+		scheduled.add(writer);
+		LockSupport.unpark(thread);
+	}
+
+
+	// ______________PRIVATE______________
+
+	/*
+	 * Body of the thread. Visits the scheduled writers in turn and sleeps while there are none.
+	 */
+	private void writeLogs() {
+		while (true) {
+			AsyncLogWriter writer = scheduled.poll();
+			if (writer == null) {
+				LockSupport.park(this);
+				continue;
+			}
+
+			try {
+				writer.writeBatch();
+			}
+			catch (RuntimeException e) {
+				System.err.println("Error in the log writer!");
+				e.printStackTrace();
+			}
+		}
+	}
+}
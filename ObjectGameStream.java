@@ -0,0 +1,116 @@
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/*
+ * GameStream that writes every field as a serialized object, which is the original wire format of the
+ * game. The stream is reset after every message so that modified objects such as hands are sent again
+ * in full instead of as back references.
+ */
+class ObjectGameStream implements GameStream {
+
+	private final ObjectOutputStream out;
+	private final ObjectInputStream in;
+	
+	ObjectGameStream(ObjectOutputStream out, ObjectInputStream in) {
+		this.out = out;
+		this.in = in;
+	}
+	
+	@Override
+	public WireFormat getWireFormat() {
+		return WireFormat.OBJECT_STREAM;
+	}
+
+	@Override
+	public void writeCommand(GameProtocol cmd) throws IOException {
+		out.writeObject(cmd);
+	}
+
+	@Override
+	public void writeInt(int value) throws IOException {
+		out.writeObject(value);
+	}
+
+	@Override
+	public void writeLong(long value) throws IOException {
+		out.writeObject(value);
+	}
+
+	@Override
+	public void writeSuit(Suit suit) throws IOException {
+		out.writeObject(suit);
+	}
+
+	@Override
+	public void writeCard(Card card) throws IOException {
+		out.writeObject(card);
+	}
+
+	@Override
+	public void writeCards(CardCollection cards) throws IOException {
+		out.writeObject(cards);
+	}
+
+	@Override
+	public void writeString(String str) throws IOException {
+		out.writeObject(str);
+	}
+
+	@Override
+	public void endMessage() throws IOException {
+		out.reset();
+		out.flush();
+	}
+
+	@Override
+	public void queueMessage() throws IOException {
+		out.reset();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public GameProtocol readCommand() throws IOException, ClassNotFoundException {
+		return (GameProtocol) in.readObject();
+	}
+
+	@Override
+	public int readInt() throws IOException, ClassNotFoundException {
+		return (Integer) in.readObject();
+	}
+
+	@Override
+	public long readLong() throws IOException, ClassNotFoundException {
+		return (Long) in.readObject();
+	}
+
+	@Override
+	public Suit readSuit() throws IOException, ClassNotFoundException {
+		return (Suit) in.readObject();
+	}
+
+	@Override
+	public Card readCard() throws IOException, ClassNotFoundException {
+		return (Card) in.readObject();
+	}
+
+	@Override
+	public CardCollection readCards() throws IOException, ClassNotFoundException {
+		return (CardCollection) in.readObject();
+	}
+
+	@Override
+	public String readString() throws IOException, ClassNotFoundException {
+		return (String) in.readObject();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+		in.close();
+	}
+}
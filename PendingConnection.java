@@ -0,0 +1,134 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/*
+ * A client connection accepted by the GameServer that has not been seated at a table yet. The wire format
+ * is negotiated without blocking as the hello arrives, after which the connection waits for a seat. Clients
+ * that agreed to object streams send the header of their stream right after the answer to their hello, so
+ * it is read as part of the handshake. Once seated, the connection is switched to blocking mode and opened
+ * as a GameStream for its table.
+ */
+class PendingConnection {
+
+	private final SocketChannel channel;
+	private final ByteBuffer hello = ByteBuffer.allocate(WireProtocol.HELLO_LENGTH);
+	private final ByteBuffer objectStreamHeader = ByteBuffer.allocate(WireProtocol.OBJECT_STREAM_HEADER_LENGTH);
+	private ByteBuffer reply = null;
+	private WireFormat format = null;
+	private Boolean handshakeDone = false;
+
+
+	PendingConnection(SocketChannel channel) {
+		this.channel = channel;
+	}
+
+
+	// ______________PACKAGE______________
+
+	SocketChannel getChannel() {
+		return channel;
+	}
+
+	Boolean isHandshakeDone() {
+		return handshakeDone;
+	}
+
+	Boolean hasPendingReply() {
+		return reply != null && reply.hasRemaining();
+	}
+
+	/*
+	 * Reads whatever part of the hello, or of the header of an object stream once that format has been 
+	 * agreed, has arrived. Returns true once the handshake is done. Returns false if more has to be read,
+	 * or if the answer to the hello could not be written in full, in which case writeReply() should be 
+	 * called once the channel is writable.
+	 */
+	Boolean readHello() throws IOException {
+		if (format != null)
+			return readObjectStreamHeader();
+
+		if (channel.read(hello) < 0)
+			throw new EOFException("Client disconnected during the handshake");
+		if (hello.hasRemaining())
+			return false;
+
+		byte[] bytes = hello.array();
+		int first = bytes[0] & 0xFF;
+		int second = bytes[1] & 0xFF;
+
+		// Clients from before formats were negotiated start with the header of their object stream
+		if (WireProtocol.isObjectStreamHeader(first, second)) {
+			System.err.println(WireProtocol.getUnnegotiatedMessage());
+			throw new IOException("Client did not negotiate a wire format");
+		}
+		if (!WireProtocol.isHello(first, second))
+			throw new IOException("Client did not send a valid hello");
+
+		int version = bytes[2] & 0xFF;
+		if (!WireProtocol.isSupported(version)) {
+			System.err.println(WireProtocol.getUnsupportedMessage(version));
+			channel.write(ByteBuffer.wrap(new byte[] { (byte) WireProtocol.REJECTED }));
+			throw new IOException("Client speaks an unsupported version of the protocol");
+		}
+
+		format = WireProtocol.agree(bytes[3] & 0xFF);
+		reply = ByteBuffer.wrap(new byte[] { (byte) format.ordinal() });
+		return writeReply();
+	}
+
+	/*
+	 * Writes as much of the answer to the hello as the channel accepts. Returns true once all of it has
+	 * been written and, for object streams, the header of the client's stream has been read.
+	 */
+	Boolean writeReply() throws IOException {
+		channel.write(reply);
+		if (reply.hasRemaining())
+			return false;
+
+		if (format == WireFormat.OBJECT_STREAM)
+			return readObjectStreamHeader();
+
+		handshakeDone = true;
+		return true;
+	}
+
+	/*
+	 * Switches the channel to blocking mode and opens a GameStream over it in the agreed format, whose
+	 * traffic is counted by the given metrics. The channel must not be registered with a selector anymore.
+	 */
+	GameStream open(GameMetrics metrics) throws IOException {
+		if (!handshakeDone)
+			throw new IllegalStateException("Connection cannot be opened before its handshake is done");
+
+		channel.configureBlocking(true);
+		byte[] pushback = (format == WireFormat.OBJECT_STREAM) ? objectStreamHeader.array() : new byte[0];
+		return WireProtocol.open(format, channel.socket(), pushback, metrics);
+	}
+
+	void close() {
+		try {
+			channel.close();
+		}
+		catch (IOException e) {
+			System.err.println("Failed to close client connection!");
+			e.printStackTrace();
+		}
+	}
+
+
+	// ______________PRIVATE______________
+
+	/*
+	 * Reads whatever part of the header of the client's object stream has arrived. It is handed to the
+	 * ObjectInputStream once the connection is seated.
+	 */
+	private Boolean readObjectStreamHeader() throws IOException {
+		if (channel.read(objectStreamHeader) < 0)
+			throw new EOFException("Client disconnected during the handshake");
+
+		handshakeDone = !objectStreamHeader.hasRemaining();
+		return handshakeDone;
+	}
+}
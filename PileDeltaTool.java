@@ -0,0 +1,139 @@
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Usage: java PileDeltaTool <log file> [expanded log file]
+ * Expands a log written with pile delta logging into one that lists the whole pile every time it is logged,
+ * exactly as it would have been logged without deltas. The expanded log is written to the given file or to
+ * standard output. Along the way the pile versions are checked to follow each other and every full pile to
+ * match the changes logged before it, so a log with missing or altered lines is reported rather than expanded.
+ */
+public class PileDeltaTool {
+
+	// e.g. "--Pile after dumping (version 12, added):". A version without a change is a full pile.
+	private static final Pattern PILE_TITLE = Pattern.compile("^(--Pile [a-z ]+) \\(version (\\d+)(?:, (added|removed|unchanged))?\\):$");
+	private static final String CARD_PREFIX = "----";
+
+	private final GameLogger logger;
+	private final Map<String, Card> cardsByName = new HashMap<>();
+	private CardMultiset pile = null;			// Null until the first full pile is read
+	private int pileVersion = -1;
+
+
+	PileDeltaTool(GameLogger logger) {
+		this.logger = logger;
+
+		for (int ordinal = 0; ordinal < Card.NUM_OF_CARDS; ++ordinal) {
+			Card card = Card.fromOrdinal(ordinal);
+			cardsByName.put(card.getName(), card);
+		}
+	}
+
+
+	// ______________PACKAGE______________
+
+	/*
+	 * Logs the given lines with every pile expanded. Throws an IOException naming the line at which the
+	 * pile can no longer be reconstructed.
+	 */
+	void expand(List<String> lines) throws IOException {
+		int i = 0;
+		while (i < lines.size()) {
+			Matcher title = PILE_TITLE.matcher(lines.get(i));
+			if (!title.matches()) {
+				logger.log(lines.get(i++));
+				continue;
+			}
+
+			int titleLine = i + 1;
+			CardCollection cards = new CardCollection(CardStorage.BYTE_ARRAY);
+			for (++i; i < lines.size() && !lines.get(i).isEmpty(); ++i) {
+				cards.addCard(toCard(lines.get(i), i + 1));
+			}
+			++i;		// The blank line that ends the cards
+
+			applyChange(Integer.parseInt(title.group(2)), title.group(3), cards, titleLine);
+			logger.log(title.group(1) + ":");
+			logger.logCards(pile);
+		}
+	}
+
+
+	// ______________PRIVATE______________
+
+	private void applyChange(int version, String change, CardCollection cards, int lineNumber) throws IOException {
+		if (change == null) {
+			CardMultiset fullPile = new CardMultiset(cards);
+			if (pile != null && (version != pileVersion || !isSamePile(fullPile)))
+				throw new IOException("Line " + lineNumber + ": version " + version + " of the pile doesn't match the changes logged before it");
+
+			pile = fullPile;
+			pileVersion = version;
+			return;
+		}
+
+		if (pile == null)
+			throw new IOException("Line " + lineNumber + ": the pile changes before it was logged in full");
+
+		int expectedVersion = change.equals("unchanged") ? pileVersion : pileVersion + 1;
+		if (version != expectedVersion)
+			throw new IOException("Line " + lineNumber + ": version " + version + " of the pile follows version " + pileVersion);
+
+		if (change.equals("added")) {
+			pile.addCardCollection(cards);
+		}
+		else if (change.equals("removed") && !pile.removeCards(cards)) {
+			throw new IOException("Line " + lineNumber + ": cards are removed that are not in the pile");
+		}
+		pileVersion = version;
+	}
+
+	private Boolean isSamePile(CardMultiset other) {
+		return other.size() == pile.size() && pile.hasCards(other);
+	}
+
+	private Card toCard(String line, int lineNumber) throws IOException {
+		Card card = line.startsWith(CARD_PREFIX) ? cardsByName.get(line.substring(CARD_PREFIX.length())) : null;
+		if (card == null)
+			throw new IOException("Line " + lineNumber + ": not a card: " + line);
+
+		return card;
+	}
+
+
+	// ______________MAIN______________
+
+	public static void main(String[] args) {
+		if (args.length < 1 || args.length > 2) {
+			System.err.println("Usage: java PileDeltaTool <log file> [expanded log file]");
+			return;
+		}
+
+		GameLogger logger = null;
+		try {
+			List<String> lines = Files.readAllLines(Paths.get(args[0]));
+			logger = (args.length > 1) ? new GameLogger(new PrintWriter(args[1])) : new GameLogger(new PrintWriter(System.out));
+			new PileDeltaTool(logger).expand(lines);
+		}
+		catch (FileNotFoundException e) {
+			System.err.println(e.getMessage());
+		}
+		catch (IOException e) {
+			System.err.println("The log could not be expanded: " + e.getMessage());
+			System.exit(1);
+		}
+		finally {
+			if (logger != null) {
+				logger.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,28 @@
+import java.util.random.RandomGenerator;
+
+/*
+ * An in-process player used by HeadlessCardGame. The game owns the hands and the pile and asks the
+ * player for its decisions, which is what PlayerClient does over a socket in the networked game.
+ */
+public interface Player {
+
+	String getName();
+	
+	/*
+	 * Selects the suit whose cards score double for the game. Only called on the first player. Any random
+	 * choices should be made with the passed generator so that the game can be reproduced from its seed.
+	 */
+	Suit selectSuit(RandomGenerator random);
+	
+	/*
+	 * Removes the given number of cards from the hand and returns them so that they can be dumped 
+	 * into the pile.
+	 */
+	CardCollection dumpCards(CardCollection hand, Suit selectedSuit, int numOfCards);
+	
+	/*
+	 * Chooses the given number of cards to pick from the pile. The pile and hand must not be modified.
+	 * The game removes the chosen cards from the pile and adds them to the hand.
+	 */
+	CardCollection pickCards(CardMultiset pile, CardCollection hand, Suit selectedSuit, int numOfCards);
+}
@@ -1,36 +1,46 @@
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InterruptedIOException;
 import java.net.Socket;
 import java.net.SocketException;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 public class PlayerClient {
 
-	private static final int PORT = 9231;
+	static final int PORT = 9231;
 	private String name = null;
-	private CardCollection hand = new CardCollection();
+	private CardCollection hand = new CardCollection(CardStorage.SORTED);	// Kept sorted on every insert so SORT_HAND is free
 	private CardCollection pile = null;
 	private Suit selectedSuit = null;
-	private ObjectOutputStream out;
-	private ObjectInputStream in;
+	private SplittableRandom random = new SplittableRandom();	// Reseeded by the server so that games can be reproduced
+	private WireFormat wireFormat;		// Format requested from the server when connecting
+	private GameStream stream;
 	private Socket socket;
+	private ThinkTime thinkTime = ThinkTime.NONE;
+	private LatencyHistogram pileLatencies = null;		// Only set by load generators, see BotSwarm
+	private long dumpSentNanos = 0;		// When the cards dumped in the current turn were sent, 0 outside of turns
+	private Boolean quiet = false;
 	
 	
 	//  ______________PUBLIC______________
 	
 	public PlayerClient(String name) {
+		this(name, WireFormat.BINARY);
+	}
+	
+	public PlayerClient(String name, WireFormat wireFormat) {
 		this.name = name;
+		this.wireFormat = wireFormat;
 	}
 	
 	/*
-	 * Creates a socket and a couple of Object streams to communicate with the server 
+	 * Creates a socket and negotiates the wire format used to communicate with the server.
+	 * Servers that do not understand the requested format fall back to object streams.
 	 */
 	public void openConnection() throws IOException {
 		socket = new Socket("localhost", PORT);
-		out = new ObjectOutputStream(socket.getOutputStream());
-    	in = new ObjectInputStream(socket.getInputStream());   
+		stream = WireProtocol.connect(socket, wireFormat);
 	}
 	
 	/*
@@ -41,12 +51,49 @@ public class PlayerClient {
 		// responds to the server's requests. Hence why such a loop is possible.
 		
 		GameProtocol serverMsg;
-		while ((serverMsg = (GameProtocol) in.readObject()) != GameProtocol.GAME_OVER) {
+		while ((serverMsg = stream.readCommand()) != GameProtocol.GAME_OVER) {
+				recordTurn(serverMsg);
 				respond((serverMsg));
 		}
 		receiveGameResult();
 	}
 	
+	/*
+	 * Makes the client take the given time over each of its decisions, as a person would.
+	 */
+	public void setThinkTime(ThinkTime thinkTime) {
+		if (thinkTime == null)
+			throw new IllegalArgumentException("Think time cannot be null");
+		
+		this.thinkTime = thinkTime;
+	}
+	
+	/*
+	 * Closes the connection to the server, which the server has already closed its end of once the game is over.
+	 */
+	public void closeConnection() throws IOException {
+		stream.close();
+	}
+	
+	
+	// ______________PACKAGE______________
+	
+	/*
+	 * Records the dump to pile latency of the client's turns in the given histogram. It is measured from the 
+	 * client sending the cards it dumps to the pile that it draws from arriving, which is the time the server
+	 * takes to play the dump, log it and answer, plus the network. The client's own work and think time are
+	 * never counted. Only turns in which cards are drawn are recorded, so a round without a draw never is.
+	 */
+	void setPileLatencies(LatencyHistogram pileLatencies) {
+		this.pileLatencies = pileLatencies;
+	}
+	
+	/*
+	 * Stops the client from printing the result of the game, e.g. when many clients are run by a load generator.
+	 */
+	void setQuiet(Boolean quiet) {
+		this.quiet = quiet;
+	}
 	
 	
 	// ______________PRIVATE______________
@@ -68,9 +115,15 @@ public class PlayerClient {
 			case RECEIVE_CARD_COLLECTION:
 				cmdReceiveCardCollection();
 				break;
+			case RECEIVE_HAND:
+				cmdReceiveHand();
+				break;
 			case RECEIVE_SUIT:
 				cmdReceiveSuit();
 				break;
+			case RECEIVE_SEED:
+				cmdReceiveSeed();
+				break;
 			case SEND_CARDS_RANDOMLY_HAND:
 				cmdSendRandomlyFromHand();
 				break;
@@ -86,6 +139,12 @@ public class PlayerClient {
 			case SEND_HAND_SIZE:
 				cmdSendHandSize();
 				break;
+			case SEND_SORTED_HAND:
+				cmdSendSortedHand();
+				break;
+			case SEND_CARDS_STRATEGICALLY_HAND_WITH_HAND:
+				cmdSendStrategicallyFromHandWithHand();
+				break;
 			case SEND_SUIT:
 				cmdSendSuit();
 				break;
@@ -101,70 +160,128 @@ public class PlayerClient {
 			default:
 				System.err.println("Invalid protocol command!");
 		}
+		
+		if (pileLatencies != null && isDumpRequest(cmd)) {
+			dumpSentNanos = System.nanoTime();
+		}
+	}
+	
+	private static Boolean isDumpRequest(GameProtocol cmd) {
+		return cmd == GameProtocol.SEND_CARDS_STRATEGICALLY_HAND || cmd == GameProtocol.SEND_CARDS_STRATEGICALLY_HAND_WITH_HAND
+			   || cmd == GameProtocol.SEND_CARDS_RANDOMLY_HAND;
+	}
+	
+	/*
+	 * Records the latency of the current turn once the pile arrives after the client's dump, see
+	 * setPileLatencies(). Any other command ends the turn without recording it.
+	 */
+	private void recordTurn(GameProtocol cmd) {
+		if (dumpSentNanos == 0)
+			return;
+		
+		if (cmd == GameProtocol.RECEIVE_CARD_COLLECTION) {
+			pileLatencies.record(System.nanoTime() - dumpSentNanos);
+		}
+		dumpSentNanos = 0;
+	}
+	
+	/*
+	 * Waits for as long as the client takes over its next decision.
+	 */
+	private void think() throws InterruptedIOException {
+		if (!thinkTime.isEnabled())
+			return;
+		
+		try {
+			TimeUnit.NANOSECONDS.sleep(thinkTime.nextNanos());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(name + "'s client was interrupted while thinking");
+		}
 	}
 	
 	/*
 	 * Selects a random card suit.
 	 */
 	private Suit selectSuit() {
-		return Suit.values()[new Random().nextInt(Suit.values().length)];
+		return Suit.values()[random.nextInt(Suit.values().length)];
 	}
 	
 	/*
 	 * Retrieve whether client won or lost the game from the server.
 	 */
 	private void receiveGameResult() throws ClassNotFoundException, IOException {
-		System.out.println("\n" + ((GameProtocol) in.readObject()).toString());
+		GameProtocol result = stream.readCommand();
+		if (!quiet) {
+			System.out.println("\n" + result.toString());
+		}
 	}
 
 	
 	// __Response methods for server commands__
 	
 	private void cmdSendName() throws IOException {
-		out.writeObject(name);
-		out.reset();
+		stream.writeString(name);
+		stream.endMessage();
 	}
 	
 	private void cmdSendSuit() throws IOException {
 		Suit randomSuit = selectSuit();
-		out.writeObject(randomSuit);
-		out.reset();
+		think();
+		stream.writeSuit(randomSuit);
+		stream.endMessage();
 	}
 
 	private void cmdReceiveSuit() throws ClassNotFoundException, IOException {
-		selectedSuit = (Suit) in.readObject();
+		selectedSuit = stream.readSuit();
 		
 		if (selectedSuit == null)
 			throw new IllegalStateException("Selected suit sent to " + name + " is null");
+		
+		// Keep the hand indexed by score so that the lowest score cards can be dumped without scanning it
+		hand.indexBySuit(selectedSuit);
+	}
+	
+	private void cmdReceiveSeed() throws ClassNotFoundException, IOException {
+		random = new SplittableRandom(stream.readLong());
 	}
 	
 	private void cmdReceiveCard() throws ClassNotFoundException, IOException {
-		hand.addCard((Card) in.readObject());
+		hand.addCard(stream.readCard());
+	}
+	
+	/*
+	 * Adds the whole dealt hand to the client's hand in one go.
+	 */
+	private void cmdReceiveHand() throws ClassNotFoundException, IOException {
+		hand.addCardCollection(stream.readCards());
 	}
 	
 	private void cmdReceiveCardCollection() throws ClassNotFoundException, IOException {
-		CardCollection pileFromServer = (CardCollection) in.readObject();
+		CardCollection pileFromServer = stream.readCards();
 		
 		if (pileFromServer == null) 
 			throw new SocketException("Collection received by " + name + "'s client is null");
 		else if (pileFromServer.isEmpty())
 			System.err.println("Collection received by " + name +"s client is empty");
 		
-		this.pile = new CardCollection(pileFromServer);		
+		this.pile = new CardCollection(pileFromServer, CardStorage.BYTE_ARRAY);		
 	}
 	
 	private void cmdSendRandomlyFromHand() throws IOException, ClassNotFoundException {
 		if (hand.isEmpty()) 
 			throw new IllegalStateException(name + "'s client has not received its hand yet!");
 			
-		int numOfCards = (Integer) in.readObject();
+		int numOfCards = stream.readInt();
 		CardCollection toSend = new CardCollection();
+		think();
 		
 		for(int i = 0; i < numOfCards; ++i) {			
-			toSend.addCard(hand.drawRandomCard());
+			toSend.addCard(hand.drawRandomCard(random));
 		}
-		out.writeObject(toSend);
-		out.reset();
+		stream.writeCards(toSend);
+		stream.endMessage();
 	}
 	
 	/*
@@ -176,47 +293,66 @@ public class PlayerClient {
 		if (selectedSuit == null)
 			throw new IllegalStateException("Suit has not been set in " + name + "'s client!");
 		
-		int numOfCards = (Integer) in.readObject();
-		CardCollection toSend = new CardCollection();
-			
-		for(int i = 0; i < numOfCards; ++i) {	
-			toSend.addCard(pile.drawMaxScoreCard(selectedSuit));
-		}
+		int numOfCards = stream.readInt();
+		think();
+		CardCollection toSend = pile.drawHighestScoreCards(numOfCards, selectedSuit);
+		
 		hand.addCardCollection(toSend);   // Add drawn cards from the pile to the hand
-		out.writeObject(toSend);
-		out.reset();
+		stream.writeCards(toSend);
+		stream.endMessage();
 	}
 	
 	private void cmdSendStrategicallyFromHand() throws IOException, ClassNotFoundException {
-		if (hand.isEmpty()) 
-			throw new IllegalStateException(name + "'s client has not received its hand yet!");
-		if (selectedSuit == null)
-			throw new IllegalStateException("Suit has not been set in " + name + "'s client!");
+		stream.writeCards(drawStrategicallyFromHand());
+		stream.endMessage();
+	}
+	
+	/*
+	 * Dump the lowest scoring cards and send them to the server together with the sorted hand that is left.
+	 */
+	private void cmdSendStrategicallyFromHandWithHand() throws IOException, ClassNotFoundException {
+		CardCollection toSend = drawStrategicallyFromHand();
+		hand.sort();
 		
-		int numOfCards = (Integer) in.readObject();
-		CardCollection toSend = new CardCollection();
-			
-		for(int i = 0; i < numOfCards; ++i) {	
-			toSend.addCard(hand.drawMinScoreCard(selectedSuit));
-		}
-		out.writeObject(toSend);
-		out.reset();
+		stream.writeCards(toSend);
+		stream.writeCards(hand);
+		stream.endMessage();
 	}
 	
 	private void cmdSendHand() throws IOException {
-		out.writeObject(hand);
-		out.reset();
+		stream.writeCards(hand);
+		stream.endMessage();
+	}
+	
+	private void cmdSendSortedHand() throws IOException {
+		hand.sort();
+		stream.writeCards(hand);
+		stream.endMessage();
 	}
 	
 	private void cmdSendHandSize() throws IOException {
-		out.writeObject(hand.size());
-		out.reset();
+		stream.writeInt(hand.size());
+		stream.endMessage();
 	}
 	
 	private void cmdSortHand() {
 		hand.sort();
 	}
 	
+	/*
+	 * Draws the number of lowest scoring cards requested by the server from the hand.
+	 */
+	private CardCollection drawStrategicallyFromHand() throws IOException, ClassNotFoundException {
+		if (hand.isEmpty()) 
+			throw new IllegalStateException(name + "'s client has not received its hand yet!");
+		if (selectedSuit == null)
+			throw new IllegalStateException("Suit has not been set in " + name + "'s client!");
+		
+		int numOfCards = stream.readInt();
+		think();
+		return hand.drawLowestScoreCards(numOfCards, selectedSuit);
+	}
+	
 	
 	// ______________MAIN______________
 	
@@ -226,7 +362,12 @@ public class PlayerClient {
 		Scanner cin = new Scanner(System.in);
 		String playerName = cin.nextLine();
 		
-		PlayerClient player = new PlayerClient(playerName);
+		// Object streams can be asked for by passing "object" as the first argument
+		WireFormat format = WireFormat.BINARY;
+		if (args.length > 0 && args[0].equalsIgnoreCase("object"))
+			format = WireFormat.OBJECT_STREAM;
+		
+		PlayerClient player = new PlayerClient(playerName, format);
 		player.openConnection();
 		player.listen();
 
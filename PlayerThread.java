@@ -1,8 +1,4 @@
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.util.concurrent.BrokenBarrierException;
-import java.util.concurrent.CyclicBarrier;
 
 
 public class PlayerThread implements Runnable {
@@ -10,27 +6,31 @@ public class PlayerThread implements Runnable {
 	private String name = null;
 	private int turn = -1;
 	
-	private static CyclicBarrier barrier;
-	private static Suit selectedSuit = null;
-	private static CardCollection pile;
-	private static GameLogger logger;
-	private static int numOfPlayers = 0;
-	private static int currentTurn = 1;
-	private static Object roundOneLock = new Object();
-	private static Object roundTwoLock = new Object();
-	
-	private static final int CARDS_IN_FIRST_TURN = 5;
-	private static final int CARDS_IN_SECOND_TURN = 2;
+	// State shared with the other players of the same game
+	private final TableContext table;
+	private final CardMultiset pile;
+	private final GameLogger logger;
+	private final GameJournal journal;		// Null unless the game is journaled
+	private final GameMetrics metrics;
+	private final int numOfPlayers;
+	
+	static final int CARDS_IN_FIRST_TURN = 5;
+	static final int CARDS_IN_SECOND_TURN = 2;
+	static final int MAX_NAME_LENGTH = 32;		// Characters. Longer names are cut short.
+	private static final int MAX_REASON_LENGTH = 200;		// Characters of the reason logged when a player leaves the game
+	private static final String[] ORDINALS = { "first", "second", "third", "fourth", "fifth" };
+	private static final String[] NUMBERS = { "zero", "one", "two", "three", "four", "five", "six", "seven", "eight", "nine", "ten" };
 	
 	private ClientInterface clientInterface;
+	private CardMultiset hand = new CardMultiset();		// Server's copy of the player's hand, updated from every exchange
+	private Boolean leftGame = false;		// Set once the client has broken the protocol or disconnected during a turn
 	
 	private class ClientInterface {
-		private ObjectOutputStream out;
-		private ObjectInputStream in;
+		private GameStream stream;
+		private long requestsSentNanos;		// When the last requests were sent, for the metrics
 		
-		public ClientInterface(ObjectOutputStream out, ObjectInputStream in) {
-			this.out = out;
-			this.in = in;
+		public ClientInterface(GameStream stream) {
+			this.stream = stream;
 		}
 		
 		// __Methods for communicating with the client__
@@ -44,9 +44,9 @@ public class PlayerThread implements Runnable {
 		 * @throws ClassNotFoundException
 		 */
 		private Object retrieveClientResource(GameProtocol resType) throws IOException, ClassNotFoundException {
-			out.writeObject(resType);
-			out.reset();
-			return in.readObject();
+			queueClientRequest(resType);
+			sendQueuedMessages();
+			return readClientResource(resType);
 		}
 		
 		/**
@@ -59,36 +59,164 @@ public class PlayerThread implements Runnable {
 		 * @throws ClassNotFoundException
 		 */
 		private Object retrieveClientResource(GameProtocol resType, int count) throws IOException, ClassNotFoundException {
-			out.writeObject(resType);
-			out.writeObject(count);
-			out.reset();
-			return in.readObject();
+			queueClientRequest(resType, count);
+			sendQueuedMessages();
+			return readClientResource(resType);
+		}
+		
+		/**
+		 * Queues a request for a resource without sending it. Several requests can be queued and then sent
+		 * together with sendQueuedMessages(), after which the replies must be read with readClientResource()
+		 * in the order that the requests were queued in.
+		 * @param resType -> Specifies the type of resource required as defined by GameProtocol.
+		 * @throws IOException
+		 */
+		private void queueClientRequest(GameProtocol resType) throws IOException {
+			stream.writeCommand(resType);
+			stream.queueMessage();
+			metrics.recordMessageQueued();
+		}
+		
+		/**
+		 * Queues a request for some number of resources without sending it.
+		 * @param resType -> Specifies the type of resource required as defined by GameProtocol.
+		 * @param count -> Specifies the how many resources are required.
+		 * @throws IOException
+		 */
+		private void queueClientRequest(GameProtocol resType, int count) throws IOException {
+			stream.writeCommand(resType);
+			stream.writeInt(count);
+			stream.queueMessage();
+			metrics.recordMessageQueued();
+		}
+		
+		/**
+		 * Queues a collection of cards to be sent to the client along with the next queued requests.
+		 * @param resType -> Specifies which resource is being sent to the client.
+		 * @param cards -> Represents the actual resource.
+		 * @throws IOException
+		 */
+		private void queueClientResource(GameProtocol resType, CardCollection cards) throws IOException {
+			stream.writeCommand(resType);
+			stream.writeCards(cards);
+			stream.queueMessage();
+			metrics.recordMessageQueued();
+		}
+		
+		/**
+		 * Sends all the queued messages to the client.
+		 * @throws IOException
+		 */
+		private void sendQueuedMessages() throws IOException {
+			requestsSentNanos = metrics.startTimer();
+			stream.flush();
 		}
 		
 		/**
-		 * Sends some resource to the client.
+		 * Reads the client's reply to a resource request. The request's round trip is measured from the time
+		 * the queued messages were last sent.
+		 * @param resType -> Specifies the type of resource that was requested.
+		 * @return The resource sent by the client.
+		 * @throws IOException
+		 * @throws ClassNotFoundException
+		 */
+		private Object readClientResource(GameProtocol resType) throws IOException, ClassNotFoundException {
+			Object resource = readReply(resType);
+			metrics.recordReplyReceived(resType, requestsSentNanos);
+			return resource;
+		}
+		
+		private Object readReply(GameProtocol resType) throws IOException, ClassNotFoundException {
+			switch (resType) {
+				case SEND_NAME:
+					return stream.readString();
+				case SEND_SUIT:
+					return stream.readSuit();
+				case SEND_HAND_SIZE:
+					return stream.readInt();
+				case SEND_CARDS_STRATEGICALLY_HAND_WITH_HAND:
+					return new CardCollection[] { readCards(), readCards() };
+				case SEND_HAND:
+				case SEND_SORTED_HAND:
+				case SEND_CARDS_RANDOMLY_HAND:
+				case SEND_CARDS_STRATEGICALLY_HAND:
+				case SEND_CARDS_STRATEGICALLY_PILE:
+					return readCards();
+				default:
+					throw new IllegalArgumentException(resType + " is not a resource that can be requested from the client");
+			}
+		}
+		
+		/**
+		 * Reads a collection of cards from the client, which cannot hold more cards than there are in the game.
+		 * @return The cards sent by the client.
+		 * @throws IOException if the client sent more cards than that.
+		 * @throws ClassNotFoundException
+		 */
+		private CardCollection readCards() throws IOException, ClassNotFoundException {
+			CardCollection cards = stream.readCards();
+			int cardsInGame = table.getNumberOfDecks() * Deck.DECK_SIZE;
+			
+			if (cards.size() > cardsInGame)
+				throw new IOException(name + " sent " + cards.size() + " cards, more than the " + cardsInGame + " in the game");
+			
+			return cards;
+		}
+		
+		/**
+		 * Sends a card to the client.
+		 * @param resType -> Specifies which resource is being sent to the client.
+		 * @param card -> Represents the actual resource.
+		 * @throws IOException
+		 */
+		private void sendClientResource(GameProtocol resType, Card card) throws IOException {
+			long start = metrics.startTimer();
+			stream.writeCommand(resType);
+			stream.writeCard(card);
+			stream.endMessage();
+			metrics.recordCommandSent(resType, start);
+		}
+		
+		/**
+		 * Sends a collection of cards to the client.
 		 * @param resType -> Specifies which resource is being sent to the client.
-		 * @param res -> Represents the actual resource.
+		 * @param cards -> Represents the actual resource.
 		 * @throws IOException
 		 */
-		private void sendClientResource(GameProtocol resType, Object res) throws IOException {
-			out.writeObject(resType);
-			out.writeObject(res);
-			out.reset();
+		private void sendClientResource(GameProtocol resType, CardCollection cards) throws IOException {
+			long start = metrics.startTimer();
+			stream.writeCommand(resType);
+			stream.writeCards(cards);
+			stream.endMessage();
+			metrics.recordCommandSent(resType, start);
 		}
 		
 		/**
-		 * Send some number of resources to the client.
-		 * @param resType -> Specifies which resource is being requested from the client.
-		 * @param res -> Represents the actual resource.
-		 * @param count -> Specifies how many resource of resType are needed.
+		 * Sends a suit to the client.
+		 * @param resType -> Specifies which resource is being sent to the client.
+		 * @param suit -> Represents the actual resource.
 		 * @throws IOException
 		 */
-		private void sendClientResource(GameProtocol resType, Object res, int count) throws IOException {
-			out.writeObject(resType);
-			out.writeObject(count);
-			out.writeObject(res);
-			out.reset();
+		private void sendClientResource(GameProtocol resType, Suit suit) throws IOException {
+			long start = metrics.startTimer();
+			stream.writeCommand(resType);
+			stream.writeSuit(suit);
+			stream.endMessage();
+			metrics.recordCommandSent(resType, start);
+		}
+		
+		/**
+		 * Sends a number to the client.
+		 * @param resType -> Specifies which resource is being sent to the client.
+		 * @param value -> Represents the actual resource.
+		 * @throws IOException
+		 */
+		private void sendClientResource(GameProtocol resType, long value) throws IOException {
+			long start = metrics.startTimer();
+			stream.writeCommand(resType);
+			stream.writeLong(value);
+			stream.endMessage();
+			metrics.recordCommandSent(resType, start);
 		}
 
 		/**
@@ -97,8 +225,18 @@ public class PlayerThread implements Runnable {
 		 * @throws IOException
 		 */
 		private void issueClientCommand(GameProtocol cmd) throws IOException {
-			out.writeObject(cmd);
-			out.reset();
+			long start = metrics.startTimer();
+			stream.writeCommand(cmd);
+			stream.endMessage();
+			metrics.recordCommandSent(cmd, start);
+		}
+		
+		/**
+		 * Closes the connection to the client.
+		 * @throws IOException
+		 */
+		private void close() throws IOException {
+			stream.close();
 		}
 		
 	}
@@ -106,26 +244,19 @@ public class PlayerThread implements Runnable {
 	
 	// ______________PUBLIC______________
 		
-	public PlayerThread(ObjectOutputStream out, ObjectInputStream in) {
-		clientInterface = new ClientInterface(out, in);
-		numOfPlayers++;
+	public PlayerThread(GameStream stream, TableContext table) {
+		this.clientInterface = new ClientInterface(stream);
+		this.table = table;
+		this.pile = table.getPile();
+		this.logger = table.getLogger();
+		this.journal = table.getJournal();
+		this.metrics = table.getMetrics();
+		this.numOfPlayers = table.getNumberOfPlayers();
 	}
 	
 	
 	// __Setters__
 	
-	public static void setBarrier(CyclicBarrier barrier) {
-		PlayerThread.barrier = barrier;
-	} 
-	
-	public static void setLogger(GameLogger logger) {
-		PlayerThread.logger = logger;
-	}
-	
-	public static void setPile(CardCollection pile) {
-		PlayerThread.pile = pile;
-	}
-
 	public void setTurn(int turn) {
 		if (this.turn == -1) {
 			this.turn = turn;
@@ -138,19 +269,28 @@ public class PlayerThread implements Runnable {
 	
 	// __Getters__
 	
-	public static Suit getSelectedSuit() {
-		return selectedSuit;
+	public Suit getSelectedSuit() {
+		return table.getSelectedSuit();
 	}
 	
 	/*
-	 * Returns the CardCollection representing the players current hand.
+	 * Returns a sorted copy of the player's current hand as tracked by the server. Use 
+	 * retrievePlayerHand() to get the client's own copy.
 	 */
-	public CardCollection getHand() throws ClassNotFoundException, IOException {
-		return (CardCollection) clientInterface.retrieveClientResource(GameProtocol.SEND_HAND);
+	public CardCollection getHand() {
+		return hand.toCardCollection(CardStorage.SORTED);
 	}
 	
-	public int getHandSize() throws ClassNotFoundException, IOException {
-		return (Integer) clientInterface.retrieveClientResource(GameProtocol.SEND_HAND_SIZE);
+	public int getHandSize() {
+		return hand.size();
+	}
+	
+	/*
+	 * Returns true if the player left the game during one of their turns. Such a player plays no more 
+	 * turns and is not scored.
+	 */
+	public Boolean hasLeftGame() {
+		return leftGame;
 	}
 			
 	public int getTurn() {
@@ -165,28 +305,38 @@ public class PlayerThread implements Runnable {
 	// __Methods__
 	
 	/*
-	 * Runs the player thread which completes it first turn, waits for all other players to complete their
-	 * first turns and then proceeds to complete its second turn.
+	 * Runs the player thread, which plays one turn in every round of the game. The table's sequencer makes
+	 * the player wait for its turn, and the next player is only woken once the turn has been logged. A 
+	 * player that has left the game still passes on its turns so that the others can play theirs. A turn 
+	 * that fails for any reason makes the player leave the game rather than end the thread.
 	 */
 	@Override
-	public void run() {	
-				
-		try {
-			firstTurn();
-		} 
-		catch (ClassNotFoundException | IOException e1) {
-			System.err.println("Error exchanging cards b/w client and player during first turn of " + name);
-			e1.printStackTrace();
-		}
+	public void run() {
+		TurnSequencer sequencer = table.getSequencer();
+		int seat = turn - 1;
 		
-		waitForFirstRoundToComplete();
-		
-		try {
-			secondTurn();
-		} 
-		catch (IOException | ClassNotFoundException e) {
-			System.err.println("Error exchanging cards b/w client and player during second turn of " + name);
-			e.printStackTrace();
+		for (int round = 0; round < table.getRules().getNumberOfRounds(); ++round) {
+			sequencer.awaitTurn(seat);
+			long turnStart = metrics.startTimer();
+			try {
+				if (!leftGame) {
+					playTurn(round);
+					metrics.recordPhase(GamePhase.TURN, turnStart);
+				}
+			} 
+			catch (ClassNotFoundException | IOException e) {
+				System.err.println("Error exchanging cards b/w client and player during " + ordinal(round) + " turn of " + name);
+				e.printStackTrace();
+				leaveGame((e.getMessage() != null) ? e.getMessage() : e.getClass().getSimpleName());
+			}
+			catch (RuntimeException e) {
+				System.err.println("Error during " + ordinal(round) + " turn of " + name);
+				e.printStackTrace();
+				leaveGame(e.getClass().getSimpleName());
+			}
+			finally {
+				sequencer.endTurn(seat);
+			}
 		}
 	}
 	
@@ -199,23 +349,33 @@ public class PlayerThread implements Runnable {
 	 */
 	public void pickupCard(Card card) throws IOException {
 		clientInterface.sendClientResource(GameProtocol.RECEIVE_CARD, card);
+		hand.addCard(card);
+	}
+	
+	/*
+	 * Send the player's whole dealt hand to the client in a single message.
+	 */
+	public void pickupHand(CardCollection dealtHand) throws IOException {
+		clientInterface.sendClientResource(GameProtocol.RECEIVE_HAND, dealtHand);
+		hand.addCardCollection(dealtHand);
 	}
 	
 	/*
 	 * Removes the specified number of cards from the players hand. The removed cards
-	 * are selected randomly.
+	 * are selected randomly. Throws an IOException if the client breaks the rules.
 	 */
 	public CardCollection dumpRandomCards(int numOfCards) throws IOException, ClassNotFoundException {
 		// Request PlayerClient to return the specified number of Card's in a random fashion (i.e. Card's are in a random order)
-		return (CardCollection) clientInterface.retrieveClientResource(GameProtocol.SEND_CARDS_RANDOMLY_HAND, numOfCards);
+		return removeFromHand((CardCollection) clientInterface.retrieveClientResource(GameProtocol.SEND_CARDS_RANDOMLY_HAND, numOfCards), numOfCards);
 	}
 	
 	/*
 	 * Removes the specified number of cards from the players hand. The removed cards
-	 * are lowest score card that the player currently has.
+	 * are lowest score card that the player currently has. Throws an IOException if 
+	 * the client breaks the rules.
 	 */
 	public CardCollection dumpCardsStrategically(int numOfCards) throws ClassNotFoundException, IOException {
-		return (CardCollection) clientInterface.retrieveClientResource(GameProtocol.SEND_CARDS_STRATEGICALLY_HAND, numOfCards);		
+		return removeFromHand((CardCollection) clientInterface.retrieveClientResource(GameProtocol.SEND_CARDS_STRATEGICALLY_HAND, numOfCards), numOfCards);
 	}
 	
 	/*
@@ -238,35 +398,58 @@ public class PlayerThread implements Runnable {
 		return (CardCollection) clientInterface.retrieveClientResource(GameProtocol.SEND_HAND);
 	}
 	
+	/*
+	 * Sorts the hand and retrieves it in a single round trip. The size of the hand is the size of the
+	 * returned collection, so there is no need to ask for it separately.
+	 */
+	public CardCollection retrieveSortedPlayerHand() throws ClassNotFoundException, IOException {
+		return (CardCollection) clientInterface.retrieveClientResource(GameProtocol.SEND_SORTED_HAND);
+	}
+	
 	public int retrievePlayerHandSize() throws ClassNotFoundException, IOException {
 		return (Integer) clientInterface.retrieveClientResource(GameProtocol.SEND_HAND_SIZE);
 	}
 	
 	/*
 	 * Asks client to send player name. If name has already been sent previously, 
-	 * returns that instead.
+	 * returns that instead. Names longer than MAX_NAME_LENGTH are cut short.
 	 */
 	public void setPlayerName() throws IOException, ClassNotFoundException {
-		name = (String) clientInterface.retrieveClientResource(GameProtocol.SEND_NAME);
+		name = truncate((String) clientInterface.retrieveClientResource(GameProtocol.SEND_NAME), MAX_NAME_LENGTH);
 	}
 	
+	/*
+	 * Sends the client the result of the game and closes the connection, unless the player has already
+	 * left the game.
+	 */
 	public void closeConnection(GameProtocol status) throws IOException {
+		if (leftGame)
+			return;
+		
 		clientInterface.issueClientCommand(GameProtocol.GAME_OVER);
 		clientInterface.issueClientCommand(status);
+		clientInterface.close();
 	}
 	
 	/*
 	 * Ask client to select a suit and send it back to the Player thread over the socket.
 	 */
 	public Suit getSelectedSuitFromClient() throws IOException, ClassNotFoundException {
-		if (this.selectedSuit == null) {
+		if (table.getSelectedSuit() == null) {
 			return (Suit) clientInterface.retrieveClientResource(GameProtocol.SEND_SUIT);
 		}
 		else {
-			return this.selectedSuit;
+			return table.getSelectedSuit();
 		}
 	}
 
+	/*
+	 * Sends the client the seed it should use for all its random choices.
+	 */
+	public void sendSeed(long seed) throws IOException {
+		clientInterface.sendClientResource(GameProtocol.RECEIVE_SEED, seed);
+	}
+	
 	/*
 	 * Sends the specified suit to the client.
 	 */
@@ -274,135 +457,251 @@ public class PlayerThread implements Runnable {
 		clientInterface.sendClientResource(GameProtocol.RECEIVE_SUIT, suit);
 	}
 	
+	/*
+	 * Asks the client to draw cards from the pile it was last sent and moves them from the pile into the
+	 * server's copy of the hand. Throws an IOException if the client breaks the rules.
+	 */
 	public CardCollection drawCardsFromPile(int numOfCards) throws IOException, ClassNotFoundException {
-		return (CardCollection) clientInterface.retrieveClientResource(GameProtocol.SEND_CARDS_STRATEGICALLY_PILE, numOfCards);
+		CardCollection drawnCards = (CardCollection) clientInterface.retrieveClientResource(GameProtocol.SEND_CARDS_STRATEGICALLY_PILE, numOfCards);
+		return takeFromPile(drawnCards, numOfCards);
 	}
 	
 	
 	
 	// ______________PRIVATE______________
 	
-	private void firstTurn() throws ClassNotFoundException, IOException {
-		// Player thread checks if it is its turn. If it's not, it goes into a waiting state
-		// using roundOneLock. If it is its turn, it finishes its first turn and then uses
-		// notifyAll to wake up all the other waiting Player threads. This loop runs again
-		// in all the newly awoken threads and the Player thread with the next turn gets to
-		// complete its first turn whilst the rest of threads go into a waiting state again.
-		// Once the running thread completes its turn, it wakes up all the waiting threads 
-		// again and this loop repeats itself. This ensures that the Player threads complete 
-		// their turn in the assigned order.
-		
-		synchronized (roundOneLock) {
-			while (turn != currentTurn) {
-				try {
-					roundOneLock.wait();
-				} 
-				catch (InterruptedException e) {
-					System.out.println(this.name + "'s thread got interrupted!");
-				}
-			}
+	/*
+	 * Plays one of the player's turns. The player dumps the round's number of cards into the pile and then
+	 * draws the round's number of cards from it, all of which is logged. Must only be called during the
+	 * player's turn so that nobody else changes the pile.
+	 */
+	private void playTurn(int round) throws IOException, ClassNotFoundException {
+		GameRules rules = table.getRules();
+		int cardsDumped = rules.getCardsDumped(round);
+		int cardsDrawn = rules.getCardsDrawn(round);
 		
-			sortHand();
-			logger.logHeading(name + "'s first turn");
-			logger.log("\n--" + name + "'s hand before first turn (" + retrievePlayerHandSize() + ")");
-			logger.logCards(retrievePlayerHand());
-			
-			CardCollection dumpedCards = dumpCardsStrategically(CARDS_IN_FIRST_TURN);		
-			logger.log("--Following five cards dumped into pile:");
-			logger.logCards(dumpedCards);
-			
-			logger.log("--Pile before dumping:");
-			logger.logCards(pile);
-	
-			pile.addCardCollection(dumpedCards);
-			
-			logger.log("--Pile after dumping:");
-			logger.logCards(pile);
-			
-			// If last turn of first round
-			if (turn == numOfPlayers) {
-				currentTurn = 1;
+		if (journal != null) {
+			journal.recordTurn(turn - 1, round);
+		}
+		logger.logHeading(name + "'s " + ordinal(round) + " turn");
+		logger.log("\n--" + name + "'s hand before " + ordinal(round) + " turn (" + hand.size() + ")");
+		logger.logCards(hand);
+		
+		// Only the cards removed from the server's copy of the hand are journaled and logged
+		CardCollection dumpedCards = exchangeDumpedCards(cardsDumped);
+		if (journal != null) {
+			journal.recordDump(turn - 1, dumpedCards);
+		}
+		logger.log("--Following " + numberInWords(dumpedCards.size()) + " cards dumped into pile:");
+		logger.logCards(dumpedCards);
+		
+		logPileBeforeDumping();
+		
+		pile.addCardCollection(dumpedCards);
+		
+		logPileChange("--Pile after dumping", "added", dumpedCards);
+		
+		if (cardsDrawn > 0) {
+			// Send the client the current pile and tell it to draw cards from it, add them to its hand and
+			// send them back so the pile can be updated. Both go out together in a single round trip.
+			clientInterface.queueClientResource(GameProtocol.RECEIVE_CARD_COLLECTION, pile.toCardCollection(CardStorage.BYTE_ARRAY));
+			clientInterface.queueClientRequest(GameProtocol.SEND_CARDS_STRATEGICALLY_PILE, cardsDrawn);
+			if (table.isVerifyingHands()) {
+				clientInterface.queueClientRequest(GameProtocol.SEND_SORTED_HAND);
 			}
-			else {
-				currentTurn++;
-			}	
-			roundOneLock.notifyAll();
+			clientInterface.sendQueuedMessages();
 			
-			sortHand();
-			logger.log("--" + name + "'s hand after first turn (" + retrievePlayerHandSize() + ")");
-			logger.logCards(retrievePlayerHand());
-			logger.addNewLine();
-		}	
-	}
-	
-	private void secondTurn() throws IOException, ClassNotFoundException {
-		// The same code is used as that in firstTurn(). Only the lock variable is changed.
-		synchronized (roundTwoLock) {
-			while (turn != currentTurn) {
-				try {
-					roundTwoLock.wait();
-				} 
-				catch (InterruptedException e) {
-					System.out.println(this.name + "'s thread got interrupted!");
-				}
+			// Likewise only the cards moved into the server's copy of the hand, so that replaying the journal
+			// ends with the same hands
+			CardCollection drawnCards = (CardCollection) clientInterface.readClientResource(GameProtocol.SEND_CARDS_STRATEGICALLY_PILE);
+			CardCollection takenCards = takeFromPile(drawnCards, cardsDrawn);
+			if (table.isVerifyingHands()) {
+				verifyHand((CardCollection) clientInterface.readClientResource(GameProtocol.SEND_SORTED_HAND));
+			}
+			if (journal != null) {
+				journal.recordPick(turn - 1, takenCards);
 			}
-			logger.logHeading(name + "'s second turn");
-			logger.log("\n--" + name + "'s hand before second turn (" + retrievePlayerHandSize() + ")");
-			logger.logCards(retrievePlayerHand());
 			
-			CardCollection dumpedCards = dumpCardsStrategically(CARDS_IN_SECOND_TURN);
-			logger.log("--Following two cards dumped into pile:");
-			logger.logCards(dumpedCards);
+			logger.log("--Cards drawn from the pile:");
+			logger.logCards(takenCards);
 			
+			logPileChange("--Pile after drawing cards", "removed", takenCards);
+		}
+		
+		logger.log("--" + name + "'s hand after " + ordinal(round) + " turn (" + hand.size() + ")");
+		logger.logCards(hand);
+		logWinEstimate(round * numOfPlayers + turn);
+		
+		if (round + 1 < rules.getNumberOfRounds()) {
+			logger.addNewLine();
+		}
+	}
+	
+	/*
+	 * Asks the client to dump its lowest scoring cards and removes them from the server's copy of the hand.
+	 * Throws an IOException if the client didn't dump the given number of cards from its hand. If hands are being verified, the client's hand is requested before and after the dump in the
+	 * same round trip and compared with the server's copy.
+	 */
+	private CardCollection exchangeDumpedCards(int numOfCards) throws IOException, ClassNotFoundException {
+		if (!table.isVerifyingHands())
+			return dumpCardsStrategically(numOfCards);
+		
+		clientInterface.queueClientRequest(GameProtocol.SEND_SORTED_HAND);
+		clientInterface.queueClientRequest(GameProtocol.SEND_CARDS_STRATEGICALLY_HAND_WITH_HAND, numOfCards);
+		clientInterface.sendQueuedMessages();
+		
+		verifyHand((CardCollection) clientInterface.readClientResource(GameProtocol.SEND_SORTED_HAND));
+		CardCollection[] dumpedAndHand = (CardCollection[]) clientInterface.readClientResource(GameProtocol.SEND_CARDS_STRATEGICALLY_HAND_WITH_HAND);
+		CardCollection dumpedCards = removeFromHand(dumpedAndHand[0], numOfCards);
+		verifyHand(dumpedAndHand[1]);
+		
+		return dumpedCards;
+	}
+	
+	/*
+	 * Removes the cards dumped by the client from the server's copy of its hand and returns them. A client
+	 * that dumps the wrong number of cards, or any card that it doesn't have, has broken the protocol, so an
+	 * IOException is thrown and the hand is left as it was.
+	 */
+	private CardCollection removeFromHand(CardCollection dumpedCards, int numOfCards) throws IOException {
+		if (dumpedCards.size() != numOfCards)
+			throw new IOException(name + " dumped " + dumpedCards.size() + " cards instead of " + numOfCards);
+		if (!hand.removeCards(dumpedCards))
+			throw new IOException(name + " dumped cards that are not in their hand");
+		
+		return dumpedCards;
+	}
+	
+	/*
+	 * Moves the cards drawn by the client from the pile into the server's copy of its hand and returns them.
+	 * A client that draws the wrong number of cards, or any card that isn't in the pile, has broken the
+	 * protocol, so an IOException is thrown and neither the pile nor the hand is changed.
+	 */
+	private CardCollection takeFromPile(CardCollection drawnCards, int numOfCards) throws IOException {
+		if (drawnCards.size() != numOfCards)
+			throw new IOException(name + " drew " + drawnCards.size() + " cards instead of " + numOfCards);
+		if (!pile.removeCards(drawnCards))
+			throw new IOException(name + " drew cards that are not in the pile");
+		
+		hand.addCardCollection(drawnCards);
+		return drawnCards;
+	}
+	
+	/*
+	 * Ends the game for a client that broke the protocol or disconnected during the player's turn. The
+	 * connection is closed, and the player plays no more turns and is not scored, so whatever the client
+	 * did cannot improve its score.
+	 */
+	private void leaveGame(String reason) {
+		leftGame = true;
+		table.recordPlayerLeft();
+		reason = truncate(reason, MAX_REASON_LENGTH);
+		
+		logger.log("--" + name + " left the game: " + reason);
+		logger.addNewLine();
+		if (journal != null) {
+			journal.recordLeave(turn - 1, reason);
+		}
+		
+		try {
+			clientInterface.close();
+		}
+		catch (IOException e) {
+			System.err.println("Failed to close client connection of " + name);
+		}
+	}
+	
+	/*
+	 * Logs the pile before the player dumps their cards. When logging pile deltas, only the first turn of
+	 * a round logs the whole pile. Later turns only log its version, since nobody has changed the pile
+	 * after the previous player logged it.
+	 */
+	private void logPileBeforeDumping() {
+		if (!table.isLoggingPileDeltas()) {
 			logger.log("--Pile before dumping:");
 			logger.logCards(pile);
-			
-			pile.addCardCollection(dumpedCards);
-			
-			logger.log("--Pile after dumping:");
+		}
+		else if (turn == 1) {
+			logger.log("--Pile before dumping (version " + table.getPileVersion() + "):");
 			logger.logCards(pile);
-					
-			// Send the client the current pile
-			clientInterface.sendClientResource(GameProtocol.RECEIVE_CARD_COLLECTION, pile);
-			
-			// Tell client to draw 2 cards from the sent pile and add them to their hand and then send those
-			// added cards back so the pile can be updated.
-			CardCollection drawnCards = drawCardsFromPile(CARDS_IN_SECOND_TURN);;
-			pile.removeCards(drawnCards);
-				
-			logger.log("--Cards drawn from the pile:");
-			logger.logCards(drawnCards);
-			
-			logger.log("--Pile after drawing cards:");
+		}
+		else {
+			logger.log("--Pile before dumping (version " + table.getPileVersion() + ", unchanged):");
+			logger.addNewLine();
+		}
+	}
+	
+	/*
+	 * Logs the pile after the given cards were added to it or removed from it. When logging pile deltas,
+	 * only the changed cards are logged along with the pile's new version. See PileDeltaTool.
+	 */
+	private void logPileChange(String title, String change, CardCollection changedCards) {
+		if (!table.isLoggingPileDeltas()) {
+			logger.log(title + ":");
 			logger.logCards(pile);
-			
-			roundTwoLock.notifyAll();
-			currentTurn++;		
-			
-			sortHand();
-			logger.log("--" + name + "'s hand after second turn (" + retrievePlayerHandSize() + ")");
-			logger.logCards(retrievePlayerHand());
-		}	
-	}
-	
-	private void waitForFirstRoundToComplete() {
-		// As each player completes its first turn, it begins to wait on the barrier.
-		// The barrier will only open when all the player threads call barrier.await().
-		// The number of threads needed to trip the barrier is specified when the 
-		// barrier is created. In our case, it is equal to the number of players, meaning
-		// that only when all the players have completed their first turn will they
-		// proceed towards their second turn. 
-		try {
-			barrier.await();
-		} 
-		catch (InterruptedException e) {
-			System.out.println(this.name + "'s thread got interrupted!");
-			e.printStackTrace();
-		} 
-		catch (BrokenBarrierException e) {
-			System.out.println(this.name + " still waiting for completion of first round!");
-			e.printStackTrace();
 		}
+		else {
+			logger.log(title + " (version " + table.advancePileVersion() + ", " + change + "):");
+			logger.logCards(changedCards);
+		}
+	}
+	
+	/*
+	 * Compares a hand reported by the client with the server's copy and reports any difference.
+	 */
+	private void verifyHand(CardCollection clientHand) {
+		CardMultiset reported = new CardMultiset(clientHand);
+		
+		if (reported.size() != hand.size() || !hand.hasCards(reported)) {
+			System.err.println(name + "'s hand does not match the server's copy!");
+			logger.log("--" + name + "'s client reported a different hand (" + reported.size() + ")");
+			logger.logCards(reported);
+			if (journal != null) {
+				journal.recordClientHand(turn - 1, reported);
+			}
+		}
+	}
+	
+	/*
+	 * Logs the player's estimated win probability given their hand and the pile, if enabled. Must be
+	 * called during the player's turn so that the pile doesn't change. Nothing is estimated once a player
+	 * has left the game, as the estimator relies on every hand following the rules.
+	 */
+	private void logWinEstimate(int turnsCompleted) {
+		WinProbabilityEstimator winEstimator = table.getWinEstimator();
+		if (winEstimator == null || table.hasPlayerLeft())
+			return;
+		
+		GameSnapshot snapshot = new GameSnapshot(table.getNumberOfDecks(), numOfPlayers, table.getRules(), turn - 1, turnsCompleted, 
+												 table.getSelectedSuit(), hand, pile);
+		WinEstimate estimate = winEstimator.estimate(snapshot, table.nextRolloutRandom());
+		logger.log("--" + name + "'s estimated win probability: " + estimate);
+		logger.addNewLine();
+		if (journal != null) {
+			journal.recordWinEstimate(turn - 1, estimate);
+		}
+	}
+	
+	/*
+	 * Returns "first", "second", ... for rounds 0, 1, ... so that the standard game reads as it always has.
+	 */
+	static String ordinal(int round) {
+		return (round < ORDINALS.length) ? ORDINALS[round] : (round + 1) + "th";
+	}
+	
+	/*
+	 * Returns the text cut short to the given number of characters, without splitting a character that
+	 * takes two chars.
+	 */
+	private static String truncate(String text, int maxLength) {
+		if (text.codePointCount(0, text.length()) <= maxLength)
+			return text;
+		
+		return text.substring(0, text.offsetByCodePoints(0, maxLength));
+	}
+	
+	static String numberInWords(int number) {
+		return (number < NUMBERS.length) ? NUMBERS[number] : String.valueOf(number);
 	}
 
 }
@@ -0,0 +1,153 @@
+import java.util.Iterator;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/*
+ * CardStore that keeps its cards sorted by suit and then by descending card value, the same order as
+ * CardComparator. The cards are stored in a CardMultiset, i.e as a count of each of the 52 cards, so 
+ * adding, removing and checking for a card is O(1) and sorting is a no-op. Positional access walks 
+ * the 52 counts. Sorted stores cannot be shuffled. This store is not thread safe.
+ */
+class SortedCardStore implements CardStore {
+
+	private static final long serialVersionUID = 4312L;
+	
+	private CardMultiset cards = new CardMultiset();
+	
+	@Override
+	public CardStorage getStorage() {
+		return CardStorage.SORTED;
+	}
+
+	@Override
+	public void add(Card card) {
+		cards.addCard(card);
+	}
+
+	@Override
+	public void addAll(CardStore store) {
+		if (store instanceof SortedCardStore) {
+			cards.addMultiset(((SortedCardStore) store).cards);
+		}
+		else {
+			for (Card card : store) {
+				cards.addCard(card);
+			}
+		}
+	}
+
+	@Override
+	public void addAll(List<Card> toAdd) {
+		for (Card card : toAdd) {
+			cards.addCard(card);
+		}
+	}
+
+	@Override
+	public void addRange(CardStore store, int from, int to) {
+		for (int i = from; i < to; ++i) {
+			cards.addCard(store.get(i));
+		}
+	}
+
+	@Override
+	public Card get(int index) {
+		return cardAt(index);
+	}
+
+	@Override
+	public Card removeAt(int index) {
+		Card card = cardAt(index);
+		cards.removeCard(card);
+		return card;
+	}
+
+	@Override
+	public boolean remove(Card card) {
+		return card != null && cards.removeCard(card);
+	}
+
+	@Override
+	public void removeCounts(int[] counts) {
+		for (int i = 0; i < counts.length; ++i) {
+			Card card = Card.fromOrdinal(i);
+			for (int n = counts[i]; n > 0; --n) {
+				cards.removeCard(card);
+			}
+		}
+	}
+
+	@Override
+	public void truncate(int newSize) {
+		while (cards.size() > newSize) {
+			cards.removeCard(cardAt(cards.size() - 1));
+		}
+	}
+
+	@Override
+	public boolean contains(Card card) {
+		return card != null && cards.hasCard(card);
+	}
+
+	/*
+	 * The cards are always kept sorted.
+	 */
+	@Override
+	public void sort() {}
+
+	/*
+	 * Never called, CardCollection rejects shuffling sorted collections.
+	 */
+	@Override
+	public void shuffle(RandomGenerator random) {
+		throw new IllegalStateException("Sorted card collections cannot be shuffled");
+	}
+
+	@Override
+	public void clear() {
+		cards.clear();
+	}
+
+	@Override
+	public int size() {
+		return cards.size();
+	}
+
+	@Override
+	public Iterator<Card> iterator() {
+		return cards.iterator();
+	}
+	
+	
+	// ______________PACKAGE______________
+	
+	/*
+	 * Returns the counts that the cards are stored as. Must not be modified.
+	 */
+	CardMultiset getMultiset() {
+		return cards;
+	}
+	
+	
+	// ______________PRIVATE______________
+	
+	/*
+	 * Walks the card counts in sorted order until the card at the given position is reached.
+	 */
+	private Card cardAt(int index) {
+		if (index < 0 || index >= cards.size())
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + cards.size());
+		
+		int position = 0;
+		for (int suit = 0; suit < Suit.values().length; ++suit) {
+			for (int type = Card.CARDS_PER_SUIT - 1; type >= 0; --type) {
+				Card card = Card.fromOrdinal(suit * Card.CARDS_PER_SUIT + type);
+				position += cards.count(card);
+				
+				if (position > index)
+					return card;
+			}
+		}
+		throw new IllegalStateException("Card counts are out of sync with the size of the collection");
+	}
+}
@@ -0,0 +1,42 @@
+import java.util.random.RandomGenerator;
+
+/*
+ * Plays the same strategy as PlayerClient: selects a random suit, dumps its lowest score cards and 
+ * picks the highest score cards from the pile.
+ */
+public class StrategicPlayer implements Player {
+
+	private final String name;
+	
+	public StrategicPlayer(String name) {
+		if (name == null)
+			throw new IllegalArgumentException("Player name cannot be null");
+		
+		this.name = name;
+	}
+	
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public Suit selectSuit(RandomGenerator random) {
+		return Suit.values()[random.nextInt(Suit.values().length)];
+	}
+
+	@Override
+	public CardCollection dumpCards(CardCollection hand, Suit selectedSuit, int numOfCards) {
+		return hand.drawLowestScoreCards(numOfCards, selectedSuit);
+	}
+
+	@Override
+	public CardCollection pickCards(CardMultiset pile, CardCollection hand, Suit selectedSuit, int numOfCards) {
+		CardCollection picked = new CardCollection(CardStorage.BYTE_ARRAY);
+		
+		for (Card card : new CardScoreIndex(selectedSuit, pile).highest(numOfCards)) {
+			picked.addCard(card);
+		}
+		return picked;
+	}
+}
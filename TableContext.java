@@ -0,0 +1,158 @@
+import java.util.SplittableRandom;
+
+/*
+ * State shared by the player threads of a single game: the open pile, the logger and journal, the rules and
+ * the sequencer that orders the turns. Every CardGame creates its own context and hands it to its players, so
+ * any number of games can be played at the same time in one JVM.
+ */
+class TableContext {
+
+	private final int numOfDecks;
+	private final int numOfPlayers;
+	private final CardMultiset pile;
+	private final GameLogger logger;
+	private final GameJournal journal;		// Null unless the game is journaled
+	private final TurnSequencer sequencer;
+	private GameRules rules = GameRules.STANDARD;
+	private Suit selectedSuit = null;
+	private WinProbabilityEstimator winEstimator = null;		// Only set if win probabilities should be logged
+	private SplittableRandom rolloutRandom = null;		// Split off the game's generator once the cards are dealt
+	private Boolean verifyHands = false;		// Compare the client's hand with the server's copy on every turn
+	private Boolean logPileDeltas = false;		// Log the whole pile once per round and only its changes otherwise
+	private int pileVersion = 0;				// Number of changes made to the pile. Only changed during a turn.
+	private Boolean playerLeft = false;			// Whether a player has left the game. Only changed during a turn.
+	private GameMetrics metrics = GameMetrics.DISABLED;
+
+
+	TableContext(int numOfDecks, int numOfPlayers, CardMultiset pile, GameLogger logger, GameJournal journal) {
+		this.numOfDecks = numOfDecks;
+		this.numOfPlayers = numOfPlayers;
+		this.pile = pile;
+		this.logger = logger;
+		this.journal = journal;
+		this.sequencer = new TurnSequencer(numOfPlayers);
+	}
+
+
+	// ______________PACKAGE______________
+
+	// __Setters__
+
+	/*
+	 * The settings below are made by the game before the player threads are started.
+	 */
+	void setRules(GameRules rules) {
+		this.rules = rules;
+	}
+
+	void setSelectedSuit(Suit selectedSuit) {
+		this.selectedSuit = selectedSuit;
+	}
+
+	void setWinEstimator(WinProbabilityEstimator winEstimator) {
+		this.winEstimator = winEstimator;
+	}
+
+	void setRolloutRandom(SplittableRandom rolloutRandom) {
+		this.rolloutRandom = rolloutRandom;
+	}
+
+	void setVerifyHands(Boolean verifyHands) {
+		this.verifyHands = verifyHands;
+	}
+
+	void setLogPileDeltas(Boolean logPileDeltas) {
+		this.logPileDeltas = logPileDeltas;
+	}
+
+	/*
+	 * Unlike the settings above, the metrics must be set before the players are created.
+	 */
+	void setMetrics(GameMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+
+	// __Getters__
+
+	int getNumberOfDecks() {
+		return numOfDecks;
+	}
+
+	int getNumberOfPlayers() {
+		return numOfPlayers;
+	}
+
+	CardMultiset getPile() {
+		return pile;
+	}
+
+	GameLogger getLogger() {
+		return logger;
+	}
+
+	GameJournal getJournal() {
+		return journal;
+	}
+
+	GameMetrics getMetrics() {
+		return metrics;
+	}
+
+	TurnSequencer getSequencer() {
+		return sequencer;
+	}
+
+	GameRules getRules() {
+		return rules;
+	}
+
+	Suit getSelectedSuit() {
+		return selectedSuit;
+	}
+
+	WinProbabilityEstimator getWinEstimator() {
+		return winEstimator;
+	}
+
+	Boolean isVerifyingHands() {
+		return verifyHands;
+	}
+
+	Boolean isLoggingPileDeltas() {
+		return logPileDeltas;
+	}
+
+	int getPileVersion() {
+		return pileVersion;
+	}
+
+	/*
+	 * Returns true once a player has left the game, after which the hands no longer follow the rules.
+	 */
+	Boolean hasPlayerLeft() {
+		return playerLeft;
+	}
+
+
+	// __Methods__
+
+	/*
+	 * Returns the generator of the next win estimate. Estimates are made one at a time, in the order of
+	 * the turns, so they are the same every time a game is played with the same seed.
+	 */
+	SplittableRandom nextRolloutRandom() {
+		return rolloutRandom.split();
+	}
+
+	/*
+	 * Counts a change to the pile and returns the pile's new version.
+	 */
+	int advancePileVersion() {
+		return ++pileVersion;
+	}
+
+	void recordPlayerLeft() {
+		playerLeft = true;
+	}
+}
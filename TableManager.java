@@ -0,0 +1,141 @@
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Plays the games of any number of tables at the same time. Every table gets its own CardGame and with it
+ * its own pile, turn sequencer, logger and player threads, and is played on a thread of its own. Table n is
+ * logged to logfile-n.txt and, if a seed is given, played with seed + n so that it can be replayed. Logs that
+ * are rotated are kept across restarts, so they are named after the table's seed instead, see LogRotation.
+ */
+public class TableManager {
+
+	private final String startFile;
+	private final Long seed;
+	private final Boolean verifyHands;
+	private final LogMode logMode;
+	private final Boolean logPileDeltas;
+	private final LogRotation logRotation;
+	private final GameMetrics metrics;
+	private final WinProbabilityEstimator winEstimator;		// Shared by all the tables, null if disabled
+	private final int seatsPerTable;
+	private final ThreadFactory threadFactory;
+	private final ExecutorService tableRunner;
+	private final AtomicInteger tablesStarted = new AtomicInteger();
+	private final AtomicInteger activeTables = new AtomicInteger();
+	private CardGame firstGame;
+
+
+	// ______________PUBLIC______________
+
+	/*
+	 * The game of the first table is created straight away, which checks the start file and sets the number
+	 * of seats at every table. A null seed plays every table with a random seed. The tables and their players
+	 * run on threads from the given factory, and every table's log is written in the given mode and rotation,
+	 * logging only the changes to the pile if asked to. Every table is measured by the given metrics.
+	 */
+	public TableManager(String startFile, int rollouts, Long seed, Boolean verifyHands, ThreadFactory threadFactory, 
+						LogMode logMode, Boolean logPileDeltas, LogRotation logRotation, GameMetrics metrics) 
+			throws FileNotFoundException {
+		this.startFile = startFile;
+		this.threadFactory = threadFactory;
+		this.tableRunner = Executors.newCachedThreadPool(threadFactory);
+		this.seed = seed;
+		this.verifyHands = verifyHands;
+		this.logMode = logMode;
+		this.logPileDeltas = logPileDeltas;
+		this.logRotation = logRotation;
+		this.metrics = metrics;
+		this.winEstimator = (rollouts > 0) ? new WinProbabilityEstimator(rollouts) : null;
+		this.firstGame = createGame(0);
+		this.seatsPerTable = firstGame.getNumberOfPlayers();
+	}
+
+	public int getSeatsPerTable() {
+		return seatsPerTable;
+	}
+
+	public int getTablesStarted() {
+		return tablesStarted.get();
+	}
+
+	/*
+	 * Returns the number of tables whose game is being played.
+	 */
+	public int getActiveTables() {
+		return activeTables.get();
+	}
+
+	/*
+	 * Starts playing a game with the given connections on a new table. Connections are opened on the table's
+	 * own thread, so this never blocks.
+	 */
+	public synchronized void startTable(List<PendingConnection> seats) {
+		if (seats.size() != seatsPerTable)
+			throw new IllegalArgumentException("A table needs " + seatsPerTable + " players, not " + seats.size());
+
+		int tableNumber = tablesStarted.getAndIncrement();
+		CardGame game = firstGame;
+		firstGame = null;
+
+		activeTables.incrementAndGet();
+		metrics.recordTableStarted(seats.size());
+		tableRunner.execute(() -> playTable(tableNumber, game, seats));
+	}
+
+	/*
+	 * Stops accepting new tables. Tables that have already started are played to the end.
+	 */
+	public void shutdown() {
+		tableRunner.shutdown();
+	}
+
+
+	// ______________PRIVATE______________
+
+	private CardGame createGame(int tableNumber) throws FileNotFoundException {
+		long tableSeed = (seed == null) ? new SplittableRandom().nextLong() : seed + tableNumber;
+		String logFileName = logRotation.isEnabled() ? LogRotation.getFileName(tableSeed, System.currentTimeMillis()) : "logfile-" + tableNumber + ".txt";
+
+		CardGame game = new CardGame(startFile, tableSeed, logFileName, logMode, logRotation);
+		game.setWinEstimator(winEstimator);
+		game.setHandVerification(verifyHands);
+		game.setPileDeltaLogging(logPileDeltas);
+		game.setThreadFactory(threadFactory);
+		game.setMetrics(metrics);
+		return game;
+	}
+
+	private void playTable(int tableNumber, CardGame game, List<PendingConnection> seats) {
+		try {
+			if (game == null) {
+				game = createGame(tableNumber);
+			}
+			for (PendingConnection seat : seats) {
+				game.addPlayer(seat.open(metrics));
+			}
+			game.run();
+		}
+		catch (IOException | RuntimeException e) {
+			System.err.println("Table " + tableNumber + " could not be played!");
+			e.printStackTrace();
+
+			for (PendingConnection seat : seats) {
+				seat.close();
+			}
+		}
+		catch (InterruptedException e) {
+			System.err.println("Table " + tableNumber + " got interrupted!");
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			activeTables.decrementAndGet();
+			metrics.recordTableFinished(seats.size());
+		}
+	}
+}
@@ -0,0 +1,124 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * How long a scripted client takes over each of its decisions, i.e. selecting a suit, dumping cards and
+ * drawing cards from the pile. Think times are drawn from a distribution so that a swarm of bots does not
+ * answer the server in lockstep. Written as "none", "fixed:<ms>", "uniform:<min ms>-<max ms>" or
+ * "exp:<mean ms>", see BotSwarm. Think times are drawn from a random generator of their own, so they don't
+ * change the choices of a client whose seed was set by the server.
+ */
+public final class ThinkTime {
+
+	public static final ThinkTime NONE = new ThinkTime(Distribution.NONE, 0, 0);
+
+	private enum Distribution { NONE, FIXED, UNIFORM, EXPONENTIAL }
+
+	private final Distribution distribution;
+	private final long minNanos;		// The think time if fixed, the mean if exponential
+	private final long maxNanos;		// Only used if uniform
+
+
+	// ______________PUBLIC______________
+
+	public static ThinkTime fixed(double millis) {
+		return new ThinkTime(Distribution.FIXED, toNanos(millis), 0);
+	}
+
+	public static ThinkTime uniform(double minMillis, double maxMillis) {
+		if (maxMillis < minMillis)
+			throw new IllegalArgumentException("Think time cannot range from " + minMillis + " ms down to " + maxMillis + " ms");
+
+		return new ThinkTime(Distribution.UNIFORM, toNanos(minMillis), toNanos(maxMillis));
+	}
+
+	/*
+	 * Think times that are usually short but now and then long, as those of people are.
+	 */
+	public static ThinkTime exponential(double meanMillis) {
+		return new ThinkTime(Distribution.EXPONENTIAL, toNanos(meanMillis), 0);
+	}
+
+	/*
+	 * Returns the think time written in the given way, see above.
+	 */
+	public static ThinkTime parse(String text) {
+		String[] parts = text.split(":", 2);
+		try {
+			switch (parts[0].toLowerCase()) {
+				case "none":
+					return NONE;
+				case "fixed":
+					return fixed(Double.parseDouble(parts[1]));
+				case "uniform":
+					String[] range = parts[1].split("-", 2);
+					return uniform(Double.parseDouble(range[0]), Double.parseDouble(range[1]));
+				case "exp":
+					return exponential(Double.parseDouble(parts[1]));
+				default:
+					break;
+			}
+		}
+		catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+			// Reported below
+		}
+		throw new IllegalArgumentException("Invalid think time: " + text + ", expected none, fixed:<ms>, uniform:<min ms>-<max ms> or exp:<mean ms>");
+	}
+
+	/*
+	 * Returns how long the next decision takes.
+	 */
+	public long nextNanos() {
+		switch (distribution) {
+			case FIXED:
+				return minNanos;
+			case UNIFORM:
+				return (minNanos == maxNanos) ? minNanos : ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1);
+			case EXPONENTIAL:
+				return (long) (-minNanos * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+			default:
+				return 0;
+		}
+	}
+
+	/*
+	 * Returns false for NONE, i.e. if decisions are made straight away.
+	 */
+	public Boolean isEnabled() {
+		return distribution != Distribution.NONE;
+	}
+
+	@Override
+	public String toString() {
+		switch (distribution) {
+			case FIXED:
+				return toMillis(minNanos) + " ms";
+			case UNIFORM:
+				return toMillis(minNanos) + " to " + toMillis(maxNanos) + " ms";
+			case EXPONENTIAL:
+				return "exponential, mean " + toMillis(minNanos) + " ms";
+			default:
+				return "none";
+		}
+	}
+
+
+	// ______________PRIVATE______________
+
+	private ThinkTime(Distribution distribution, long minNanos, long maxNanos) {
+		this.distribution = distribution;
+		this.minNanos = minNanos;
+		this.maxNanos = maxNanos;
+	}
+
+	private static long toNanos(double millis) {
+		if (millis < 0 || Double.isNaN(millis))
+			throw new IllegalArgumentException("Think time cannot be negative: " + millis + " ms");
+
+		return (long) (millis * TimeUnit.MILLISECONDS.toNanos(1));
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
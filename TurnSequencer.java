@@ -0,0 +1,42 @@
+import java.util.concurrent.Semaphore;
+
+/*
+ * Orders the turns of the players at a table. Every seat has its own semaphore, and a player that ends its
+ * turn releases only the seat that plays next, so every turn wakes exactly one thread. The last seat of a
+ * round hands the turn back to the first seat, so a round only starts once every player has finished the
+ * previous one, whatever the number of rounds.
+ */
+class TurnSequencer {
+
+	private final Semaphore[] seats;
+
+
+	TurnSequencer(int numOfPlayers) {
+		if (numOfPlayers < 1)
+			throw new IllegalArgumentException("Invalid number of players: " + numOfPlayers);
+
+		seats = new Semaphore[numOfPlayers];
+		for (int i = 0; i < numOfPlayers; ++i) {
+			seats[i] = new Semaphore(0);
+		}
+		seats[0].release();		// The first seat starts the game
+	}
+
+
+	// ______________PACKAGE______________
+
+	/*
+	 * Blocks until it is the given seat's turn. Seats are numbered from 0 in the order they play in.
+	 */
+	void awaitTurn(int seat) {
+		seats[seat].acquireUninterruptibly();
+	}
+
+	/*
+	 * Ends the turn of the given seat and wakes the seat that plays next. Everything the seat did during
+	 * its turn is visible to the next seat once it has been woken.
+	 */
+	void endTurn(int seat) {
+		seats[(seat + 1) % seats.length].release();
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Estimated probability of a player winning a game, along with its 95% confidence interval and the 
+ * number of rollouts the estimate is based on.
+ */
+public class WinEstimate {
+
+	private static final double Z_95 = 1.96;
+	
+	private final double probability;
+	private final double lowerBound;
+	private final double upperBound;
+	private final int rollouts;
+	
+	/*
+	 * Creates the estimate from the number of rollouts that were won, using the Wilson score interval
+	 * which stays within [0, 1] even when the probability is close to either end.
+	 */
+	public WinEstimate(int wins, int rollouts) {
+		if (rollouts <= 0 || wins < 0 || wins > rollouts)
+			throw new IllegalArgumentException("Invalid rollout counts: " + wins + " / " + rollouts);
+		
+		double p = (double) wins / rollouts;
+		double z2 = Z_95 * Z_95;
+		double denominator = 1 + z2 / rollouts;
+		double centre = (p + z2 / (2 * rollouts)) / denominator;
+		double margin = (Z_95 / denominator) * Math.sqrt(p * (1 - p) / rollouts + z2 / (4.0 * rollouts * rollouts));
+		
+		this.probability = p;
+		this.lowerBound = Math.max(0, centre - margin);
+		this.upperBound = Math.min(1, centre + margin);
+		this.rollouts = rollouts;
+	}
+	
+	public double getProbability() {
+		return probability;
+	}
+	
+	public double getLowerBound() {
+		return lowerBound;
+	}
+	
+	public double getUpperBound() {
+		return upperBound;
+	}
+	
+	public int getRollouts() {
+		return rollouts;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%.1f%% (95%% CI %.1f%% - %.1f%%, %d rollouts)", 
+							 probability * 100, lowerBound * 100, upperBound * 100, rollouts);
+	}
+}
@@ -0,0 +1,171 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Estimates a player's probability of winning an in-progress game by Monte Carlo rollouts. Each rollout
+ * deals the cards the player cannot see randomly into the other players' hands, then plays out the rest
+ * of the game with the strategy PlayerClient uses (dump the lowest score cards, pick the highest score 
+ * cards from the pile). A rollout is won only if the player ends up with the single highest score.
+ * Rollouts are split into batches and run on a ForkJoinPool. Every batch draws from its own generator,
+ * split off the one the estimate is made with, so the estimate only depends on that generator and not on
+ * how the batches are scheduled.
+ */
+public class WinProbabilityEstimator {
+	
+	public static final int DEFAULT_ROLLOUTS = 1000;
+	private static final int BATCH_SIZE = 64;		// Rollouts run by a single task before it stops splitting
+	
+	// Every player in a rollout plays the same strategy, so the same players are shared by all rollouts
+	private static final List<Player> PLAYERS = List.of(new StrategicPlayer("0"), new StrategicPlayer("1"),
+														new StrategicPlayer("2"), new StrategicPlayer("3"));
+	
+	private final ForkJoinPool pool;
+	private final int rollouts;
+	
+	
+	// ______________PUBLIC______________
+	
+	public WinProbabilityEstimator() {
+		this(ForkJoinPool.commonPool(), DEFAULT_ROLLOUTS);
+	}
+	
+	public WinProbabilityEstimator(int rollouts) {
+		this(ForkJoinPool.commonPool(), rollouts);
+	}
+	
+	public WinProbabilityEstimator(ForkJoinPool pool, int rollouts) {
+		if (pool == null)
+			throw new IllegalArgumentException("ForkJoinPool cannot be null");
+		if (rollouts < 1)
+			throw new IllegalArgumentException("Number of rollouts must be positive: " + rollouts);
+		
+		this.pool = pool;
+		this.rollouts = rollouts;
+	}
+	
+	public int getRollouts() {
+		return rollouts;
+	}
+	
+	/*
+	 * Estimates the win probability of the player whose view of the game is given by the snapshot.
+	 */
+	public WinEstimate estimate(GameSnapshot snapshot) {
+		return estimate(snapshot, new SplittableRandom());
+	}
+	
+	/*
+	 * Same as above, but the rollouts are played with generators split off the given one, so the same
+	 * estimate is made for the same generator.
+	 */
+	public WinEstimate estimate(GameSnapshot snapshot, SplittableRandom random) {
+		CardMultiset unseen = snapshot.getUnseenCards();
+		
+		int othersHandSize = 0;
+		for (int seat = 0; seat < snapshot.getNumberOfPlayers(); ++seat) {
+			if (seat != snapshot.getSeat())
+				othersHandSize += snapshot.getHandSize(seat);
+		}
+		if (othersHandSize != unseen.size())
+			throw new IllegalArgumentException("Snapshot has " + unseen.size() + " unseen cards but the other players hold " 
+												+ othersHandSize);
+		
+		byte[] unseenCards = new byte[unseen.size()];
+		int i = 0;
+		for (Card card : unseen) {
+			unseenCards[i++] = (byte) card.getOrdinal();
+		}
+		
+		int wins = pool.invoke(new RolloutTask(snapshot, unseenCards, rollouts, random.split()));
+		return new WinEstimate(wins, rollouts);
+	}
+	
+	
+	// ______________PRIVATE______________
+	
+	/*
+	 * Runs its rollouts directly once there are few enough of them, otherwise splits them in half.
+	 * Returns the number of rollouts that were won.
+	 */
+	private static class RolloutTask extends RecursiveTask<Integer> {
+
+		private static final long serialVersionUID = 1L;
+		
+		private final GameSnapshot snapshot;
+		private final byte[] unseenCards;
+		private final int rollouts;
+		private final SplittableRandom random;		// Only used by this task
+		
+		RolloutTask(GameSnapshot snapshot, byte[] unseenCards, int rollouts, SplittableRandom random) {
+			this.snapshot = snapshot;
+			this.unseenCards = unseenCards;
+			this.rollouts = rollouts;
+			this.random = random;
+		}
+		
+		@Override
+		protected Integer compute() {
+			if (rollouts <= BATCH_SIZE) {
+				int wins = 0;
+				for (int i = 0; i < rollouts; ++i) {
+					if (rollout(snapshot, unseenCards, random)) 
+						wins++;
+				}
+				return wins;
+			}
+			
+			RolloutTask left = new RolloutTask(snapshot, unseenCards, rollouts / 2, random.split());
+			RolloutTask right = new RolloutTask(snapshot, unseenCards, rollouts - rollouts / 2, random.split());
+			left.fork();
+			return right.compute() + left.join();
+		}
+	}
+	
+	/*
+	 * Plays out one random completion of the game and returns whether the player won it.
+	 */
+	private static boolean rollout(GameSnapshot snapshot, byte[] unseenCards, SplittableRandom random) {
+		int numOfPlayers = snapshot.getNumberOfPlayers();
+		int seat = snapshot.getSeat();
+		Suit selectedSuit = snapshot.getSelectedSuit();
+		
+		// Deal the unseen cards out randomly to the other players
+		byte[] deck = Arrays.copyOf(unseenCards, unseenCards.length);
+		for (int i = deck.length - 1; i > 0; --i) {
+			int j = random.nextInt(i + 1);
+			byte temp = deck[i];
+			deck[i] = deck[j];
+			deck[j] = temp;
+		}
+		
+		CardCollection[] hands = new CardCollection[numOfPlayers];
+		int next = 0;
+		for (int i = 0; i < numOfPlayers; ++i) {
+			hands[i] = new CardCollection(CardStorage.SORTED);
+			hands[i].indexBySuit(selectedSuit);
+			
+			if (i == seat) {
+				for (Card card : snapshot.getHand()) {
+					hands[i].addCard(card);
+				}
+			}
+			else {
+				for (int n = snapshot.getHandSize(i); n > 0; --n) {
+					hands[i].addCard(Card.fromOrdinal(deck[next++]));
+				}
+			}
+		}
+		
+		HeadlessCardGame.playTurns(PLAYERS.subList(0, numOfPlayers), hands, snapshot.getPile(), selectedSuit, snapshot.getRules(),
+								   snapshot.getTurnsCompleted());
+		
+		int[] scores = new int[numOfPlayers];
+		for (int i = 0; i < numOfPlayers; ++i) {
+			scores[i] = hands[i].score(selectedSuit);
+		}
+		return GameResult.findWinner(scores) == seat;
+	}
+}
@@ -0,0 +1,8 @@
+/*
+ * Formats that a server and client can exchange GameProtocol messages in. The format is negotiated
+ * when a client connects, see WireProtocol.
+ */
+public enum WireFormat {
+	OBJECT_STREAM,		// Java object serialization. Agreed to when a client asks for a format the server doesn't know.
+	BINARY				// Length prefixed frames with one byte opcodes and one byte cards. See BinaryGameStream.
+}
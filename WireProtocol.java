@@ -0,0 +1,181 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.net.Socket;
+
+/*
+ * Negotiates the WireFormat of a new connection and creates the GameStream for it.
+ * 
+ * Every client starts by sending a 4 byte hello: the magic bytes 'C' 'G', the protocol version and the
+ * ordinal of the format it wants. The server answers with the ordinal of the format that will be used, or
+ * with REJECTED if it speaks another version of the protocol, in which case it closes the connection.
+ * Clients from before formats were negotiated open an object stream straight away. They cannot play with
+ * this server, as the messages and the serialized form of the cards have changed since, so the server
+ * detects them from the object stream's magic number and closes the connection.
+ */
+public final class WireProtocol {
+
+	static final int VERSION = 3;		// Bump whenever a GameProtocol code or the layout of a frame changes
+	
+	private static final int MAGIC_1 = 'C';
+	private static final int MAGIC_2 = 'G';
+	static final int REJECTED = 0xFF;		// Answer to a hello with another version
+	
+	// First two bytes written by an ObjectOutputStream
+	private static final int OBJECT_STREAM_MAGIC_1 = 0xAC;
+	private static final int OBJECT_STREAM_MAGIC_2 = 0xED;
+	
+	private static final int BUFFER_SIZE = 8192;
+	
+	private WireProtocol() {}
+	
+	
+	// ______________PUBLIC______________
+	
+	/*
+	 * Called by the server on a newly accepted connection. Detects whether the client negotiates a format 
+	 * and returns a stream in the agreed format.
+	 */
+	public static GameStream accept(Socket socket) throws IOException {
+		socket.setTcpNoDelay(true);
+		BufferedInputStream in = new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE);
+		OutputStream out = socket.getOutputStream();
+		
+		DataInputStream dataIn = new DataInputStream(in);
+		int first = dataIn.readUnsignedByte();
+		int second = dataIn.readUnsignedByte();
+		
+		if (isObjectStreamHeader(first, second)) 
+			throw new IOException(getUnnegotiatedMessage());
+		if (!isHello(first, second)) 
+			throw new IOException("Client did not send a valid hello");
+		
+		int version = dataIn.readUnsignedByte();
+		int requested = dataIn.readUnsignedByte();
+		if (!isSupported(version)) {
+			out.write(REJECTED);
+			out.flush();
+			throw new IOException(getUnsupportedMessage(version));
+		}
+		
+		WireFormat format = agree(requested);
+		out.write(format.ordinal());
+		out.flush();
+		return open(format, out, in);
+	}
+	
+	/*
+	 * Called by the client on a new connection. Asks the server for the preferred format and returns a
+	 * stream in the format the server agreed to.
+	 */
+	public static GameStream connect(Socket socket, WireFormat preferred) throws IOException {
+		socket.setTcpNoDelay(true);
+		BufferedInputStream in = new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE);
+		OutputStream out = socket.getOutputStream();
+		
+		out.write(new byte[] { MAGIC_1, MAGIC_2, VERSION, (byte) preferred.ordinal() });
+		out.flush();
+		
+		int agreed = in.read();
+		if (agreed == REJECTED)
+			throw new IOException("Server does not speak version " + VERSION + " of the protocol");
+		if (agreed < 0 || agreed >= WireFormat.values().length)
+			throw new IOException("Server did not answer the hello");
+		
+		return open(WireFormat.values()[agreed], out, in);
+	}
+	
+	
+	// ______________PACKAGE______________
+	
+	// The hello and the header of an object stream are both 4 bytes long
+	static final int HELLO_LENGTH = 4;
+	static final int OBJECT_STREAM_HEADER_LENGTH = 4;
+	
+	/*
+	 * Returns true if the first two bytes received from a client are the magic number of an object stream.
+	 */
+	static Boolean isObjectStreamHeader(int first, int second) {
+		return first == OBJECT_STREAM_MAGIC_1 && second == OBJECT_STREAM_MAGIC_2;
+	}
+	
+	/*
+	 * Returns true if the first two bytes received from a client are the magic bytes of a hello.
+	 */
+	static Boolean isHello(int first, int second) {
+		return first == MAGIC_1 && second == MAGIC_2;
+	}
+	
+	static Boolean isSupported(int version) {
+		return version == VERSION;
+	}
+	
+	/*
+	 * Returns the format that the server agrees to when a client that speaks this version of the protocol
+	 * asks for the format with the given ordinal. Formats that this server doesn't know about are answered
+	 * with object streams, which every client of this version can speak.
+	 */
+	static WireFormat agree(int requested) {
+		if (requested < WireFormat.values().length) 
+			return WireFormat.values()[requested];
+		
+		return WireFormat.OBJECT_STREAM;
+	}
+	
+	static String getUnnegotiatedMessage() {
+		return "Rejected a client that did not negotiate a wire format, clients from before version " + VERSION + " are not supported";
+	}
+	
+	static String getUnsupportedMessage(int version) {
+		return "Rejected a client that speaks version " + version + " of the protocol instead of version " + VERSION;
+	}
+	
+	/*
+	 * Opens a stream in the given format over a blocking socket whose handshake has already been done 
+	 * elsewhere. Bytes that were read during the handshake but belong to the stream, i.e. the header of
+	 * an object stream, are passed back in with pushback. The bytes sent and received over the socket
+	 * from then on are counted by the given metrics.
+	 */
+	static GameStream open(WireFormat format, Socket socket, byte[] pushback, GameMetrics metrics) throws IOException {
+		socket.setTcpNoDelay(true);
+		InputStream in = metrics.meter(socket.getInputStream());
+		if (pushback.length > 0) {
+			in = new SequenceInputStream(new ByteArrayInputStream(pushback), in);
+		}
+		return open(format, metrics.meter(socket.getOutputStream()), new BufferedInputStream(in, BUFFER_SIZE));
+	}
+	
+	
+	// ______________PRIVATE______________
+	
+	private static GameStream open(WireFormat format, OutputStream out, InputStream in) throws IOException {
+		switch (format) {
+			case BINARY:
+				return new BinaryGameStream(new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE)), 
+											new DataInputStream(in));
+			case OBJECT_STREAM:
+				return openObjectStream(out, in);
+			default:
+				throw new IllegalArgumentException("Unknown wire format: " + format);
+		}
+	}
+	
+	/*
+	 * The output stream has to be created first, as creating an ObjectInputStream blocks until the 
+	 * header written by the other side's ObjectOutputStream has been received. The output is buffered so
+	 * that queued messages leave in as few packets as possible.
+	 */
+	private static GameStream openObjectStream(OutputStream out, InputStream in) throws IOException {
+		ObjectOutputStream objectOut = new ObjectOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+		objectOut.flush();
+		return new ObjectGameStream(objectOut, new ObjectInputStream(in));
+	}
+}
@@ -0,0 +1,218 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+
+/*
+ * Workloads of the benchmarks.CardCollectionBenchmarks and the other benchmarks of single cards and card
+ * collections, see benchmarks.Workloads. Piles hold the given number of shuffled decks and hands the share of
+ * a pile that each of four players is dealt, shuffled with the same seed every time so that every run measures
+ * the same cards. Operations that change a pile work on a copy of it, so the cost of the copy is included and
+ * can be read off the copy workload.
+ */
+public final class CardCollectionWorkloads {
+
+	private static final long SEED = 42;
+	private static final int NUM_OF_PLAYERS = 4;
+	private static final int CARDS_DRAWN = 2;		// As in the second round of the standard game
+	private static final CardComparator COMPARATOR = new CardComparator();
+
+	private CardCollectionWorkloads() {}
+
+
+	// ______________PUBLIC______________
+
+	/*
+	 * Copies the pile into a new collection.
+	 */
+	public static LongSupplier copy(int numOfDecks, String storage) {
+		CardStorage cardStorage = CardStorage.valueOf(storage);
+		CardCollection pile = createPile(numOfDecks, cardStorage);
+		return () -> new CardCollection(pile, cardStorage).size();
+	}
+
+	/*
+	 * Adds the cards of the pile one at a time to a new collection.
+	 */
+	public static LongSupplier add(int numOfDecks, String storage) {
+		CardStorage cardStorage = CardStorage.valueOf(storage);
+		Card[] cards = toArray(createPile(numOfDecks, CardStorage.BYTE_ARRAY));
+		return () -> {
+			CardCollection collection = new CardCollection(cardStorage);
+			for (Card card : cards) {
+				collection.addCard(card);
+			}
+			return collection.size();
+		};
+	}
+
+	/*
+	 * Removes the cards of one shuffled deck one at a time from a copy of the pile.
+	 */
+	public static LongSupplier remove(int numOfDecks, String storage) {
+		CardStorage cardStorage = CardStorage.valueOf(storage);
+		CardCollection pile = createPile(numOfDecks, cardStorage);
+		Card[] deck = toArray(createPile(1, CardStorage.BYTE_ARRAY));
+		return () -> {
+			CardCollection collection = new CardCollection(pile, cardStorage);
+			for (Card card : deck) {
+				collection.removeCard(card);
+			}
+			return collection.size();
+		};
+	}
+
+	/*
+	 * Draws the highest scoring cards from a copy of the pile, as a client does on its turn.
+	 */
+	public static LongSupplier draw(int numOfDecks, String storage) {
+		CardStorage cardStorage = CardStorage.valueOf(storage);
+		CardCollection pile = createPile(numOfDecks, cardStorage);
+		return () -> new CardCollection(pile, cardStorage).drawHighestScoreCards(CARDS_DRAWN, Suit.HEARTS).size();
+	}
+
+	/*
+	 * Sorts a copy of the pile.
+	 */
+	public static LongSupplier sort(int numOfDecks, String storage) {
+		CardStorage cardStorage = CardStorage.valueOf(storage);
+		CardCollection pile = createPile(numOfDecks, cardStorage);
+		return () -> {
+			CardCollection collection = new CardCollection(pile, cardStorage);
+			collection.sort();
+			return collection.size();
+		};
+	}
+
+	/*
+	 * Shuffles the pile in place.
+	 */
+	public static LongSupplier shuffle(int numOfDecks, String storage) {
+		CardCollection pile = createPile(numOfDecks, CardStorage.valueOf(storage));
+		SplittableRandom random = new SplittableRandom(SEED);
+		return () -> {
+			pile.shuffle(random);
+			return pile.size();
+		};
+	}
+
+	/*
+	 * Builds a pile, shuffles it and deals it out to four players, as CardGame does.
+	 */
+	public static LongSupplier deal(int numOfDecks, String storage) {
+		CardStorage cardStorage = CardStorage.valueOf(storage);
+		int cardsPerPlayer = numOfDecks * Deck.DECK_SIZE / NUM_OF_PLAYERS;
+		SplittableRandom random = new SplittableRandom(SEED);
+		return () -> {
+			CardCollection pile = new CardCollection(numOfDecks, CardGame.DECK_LIMIT, cardStorage);
+			return pile.deal(NUM_OF_PLAYERS, cardsPerPlayer, CardStorage.BYTE_ARRAY, random).length + pile.size();
+		};
+	}
+
+	/*
+	 * Sorts a copy of the pile's cards with a CardComparator.
+	 */
+	public static LongSupplier sortWithComparator(int numOfDecks) {
+		Card[] cards = toArray(createPile(numOfDecks, CardStorage.BYTE_ARRAY));
+		return () -> {
+			Card[] sorted = cards.clone();
+			Arrays.sort(sorted, COMPARATOR);
+			return sorted[0].getOrdinal();
+		};
+	}
+
+	/*
+	 * Scores a hand the way CardGame.calculateHandScore() does, from the sums that the collection keeps.
+	 */
+	public static LongSupplier score(int numOfDecks, String storage) {
+		CardCollection hand = createHand(numOfDecks, CardStorage.valueOf(storage));
+		return () -> hand.score(Suit.HEARTS);
+	}
+
+	/*
+	 * Scores a hand by adding up the value of every card, which is how hands were scored before the sums were
+	 * kept. A baseline for the above.
+	 */
+	public static LongSupplier scoreByIteration(int numOfDecks, String storage) {
+		CardCollection hand = createHand(numOfDecks, CardStorage.valueOf(storage));
+		return () -> {
+			int score = 0;
+			for (Card card : hand) {
+				int value = card.getCardType().getCardValue();
+				score += (card.getSuit() == Suit.HEARTS) ? 2 * value : value;
+			}
+			return score;
+		};
+	}
+
+	/*
+	 * Writes a hand to a new object stream, as ObjectGameStream sends it.
+	 */
+	public static LongSupplier serialize(int numOfDecks, String storage) {
+		CardCollection hand = createHand(numOfDecks, CardStorage.valueOf(storage));
+		return () -> serialize(hand).length;
+	}
+
+	/*
+	 * Writes a hand to a new object stream and reads it back.
+	 */
+	public static LongSupplier serializeAndDeserialize(int numOfDecks, String storage) {
+		CardCollection hand = createHand(numOfDecks, CardStorage.valueOf(storage));
+		return () -> {
+			try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialize(hand)))) {
+				return ((CardCollection) in.readObject()).size();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			catch (ClassNotFoundException e) {
+				throw new IllegalStateException(e);
+			}
+		};
+	}
+
+
+	// ______________PRIVATE______________
+
+	/*
+	 * Sorted collections cannot be shuffled, so their cards are shuffled in a byte array first. Sorting them
+	 * again on insert is what a sorted collection costs.
+	 */
+	private static CardCollection createPile(int numOfDecks, CardStorage storage) {
+		CardCollection pile = new CardCollection(CardStorage.BYTE_ARRAY);
+		pile.addDecks(numOfDecks);
+		pile.shuffle(new SplittableRandom(SEED));
+		return new CardCollection(pile, storage);
+	}
+
+	private static CardCollection createHand(int numOfDecks, CardStorage storage) {
+		CardCollection pile = createPile(numOfDecks, CardStorage.BYTE_ARRAY);
+		int cardsPerPlayer = numOfDecks * Deck.DECK_SIZE / NUM_OF_PLAYERS;
+		return pile.deal(NUM_OF_PLAYERS, cardsPerPlayer, storage, new SplittableRandom(SEED))[0];
+	}
+
+	private static Card[] toArray(CardCollection collection) {
+		Card[] cards = new Card[collection.size()];
+		int i = 0;
+		for (Card card : collection) {
+			cards[i++] = card;
+		}
+		return cards;
+	}
+
+	private static byte[] serialize(CardCollection collection) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(collection);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+}
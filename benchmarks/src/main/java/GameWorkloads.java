@@ -0,0 +1,118 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongSupplier;
+
+/*
+ * Workload of benchmarks.GameBenchmarks: a whole game between four PlayerClients over loopback sockets. The
+ * game accepts its players on the port that clients connect to and is run on the benchmark's thread, with the
+ * clients on threads of their own, so a game measures everything from the clients connecting to the results
+ * being sent, including writing the log. Every game is played with the same seed. What the game and clients
+ * print to the console is discarded while the workload is open.
+ */
+public final class GameWorkloads {
+
+	private static final long SEED = 42;
+	private static final int NUM_OF_PLAYERS = 4;
+	private static final String LOG_FILE = "benchmark.txt";
+
+	private GameWorkloads() {}
+
+
+	// ______________PUBLIC______________
+
+	/*
+	 * Plays a game with the given number of decks, with clients that use the given wire format. The returned
+	 * workload listens on the clients' port until it is closed.
+	 */
+	public static LongSupplier play(int numOfDecks, String wireFormat) throws IOException {
+		return new LoopbackGame(numOfDecks, WireFormat.valueOf(wireFormat));
+	}
+
+
+	// ______________PRIVATE______________
+
+	private static final class LoopbackGame implements LongSupplier, AutoCloseable {
+
+		private final WireFormat wireFormat;
+		private final Path startFile;
+		private final ServerSocket serverSocket;
+		private final ExecutorService clients;
+		private final PrintStream console = System.out;
+
+
+		LoopbackGame(int numOfDecks, WireFormat wireFormat) throws IOException {
+			this.wireFormat = wireFormat;
+
+			// The log is written to the game's log directory, relative to where the benchmarks are run from
+			Files.createDirectories(Paths.get(GameLogger.LOG_DIRECTORY));
+			startFile = Files.createTempFile("start", ".txt");
+			Files.writeString(startFile, "Number of Decks, Player count\n" + numOfDecks + ", " + NUM_OF_PLAYERS + "\n");
+
+			serverSocket = new ServerSocket(PlayerClient.PORT);
+			clients = Executors.newFixedThreadPool(NUM_OF_PLAYERS, runnable -> {
+				Thread thread = new Thread(runnable, "benchmark client");
+				thread.setDaemon(true);
+				return thread;
+			});
+			System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		}
+
+		/*
+		 * Plays a game and returns the seat of its winner.
+		 */
+		@Override
+		public long getAsLong() {
+			Future<?>[] players = new Future<?>[NUM_OF_PLAYERS];
+			for (int i = 0; i < NUM_OF_PLAYERS; ++i) {
+				PlayerClient client = new PlayerClient("Player " + (i + 1), wireFormat);
+				players[i] = clients.submit(() -> {
+					client.openConnection();
+					try {
+						client.listen();
+					}
+					finally {
+						client.closeConnection();
+					}
+					return null;
+				});
+			}
+
+			try {
+				CardGame game = new CardGame(startFile.toString(), SEED, LOG_FILE);
+				for (int i = 0; i < NUM_OF_PLAYERS; ++i) {
+					game.addPlayer(serverSocket.accept());
+				}
+				game.run();
+
+				for (Future<?> player : players) {
+					player.get();
+				}
+				return game.getResult().getWinnerIndex();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			catch (InterruptedException | ExecutionException e) {
+				throw new IllegalStateException("The game could not be played", e);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			System.setOut(console);
+			clients.shutdownNow();
+			serverSocket.close();
+			Files.deleteIfExists(startFile);
+		}
+	}
+}
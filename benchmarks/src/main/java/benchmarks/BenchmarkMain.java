@@ -0,0 +1,41 @@
+package benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Usage: java -jar benchmarks.jar [JMH options] [benchmark patterns]
+ * Runs the benchmarks like org.openjdk.jmh.Main, but always with the GC profiler, i.e. as if -prof gc was given,
+ * which adds the allocation rate, the bytes allocated per operation and the number and time of collections to
+ * every result. Options that only print something, such as -l or -h, are handed to org.openjdk.jmh.Main.
+ */
+public class BenchmarkMain {
+
+	// ______________MAIN______________
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+			|| commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+			Main.main(args);
+			return;
+		}
+
+		OptionsBuilder options = new OptionsBuilder();
+		if (!hasGCProfiler(commandLine)) {
+			options.addProfiler(GCProfiler.class);
+		}
+		new Runner(options.parent(commandLine).build()).run();
+	}
+
+
+	// ______________PRIVATE______________
+
+	private static Boolean hasGCProfiler(CommandLineOptions commandLine) {
+		return commandLine.getProfilers().stream()
+						  .anyMatch(profiler -> profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName()));
+	}
+}
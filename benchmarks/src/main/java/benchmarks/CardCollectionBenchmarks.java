@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Adding, removing, drawing and sorting the cards of a pile of one to four decks in every storage of a
+ * CardCollection, see CardCollectionWorkloads. All but add work on a copy of the pile, so copy is their
+ * baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CardCollectionBenchmarks {
+
+	private static final String WORKLOADS = "CardCollectionWorkloads";
+
+	@Param({ "1", "2", "3", "4" })
+	public int numOfDecks;
+
+	@Param({ "COPY_ON_WRITE", "BYTE_ARRAY", "SORTED" })
+	public String storage;
+
+	private LongSupplier copy;
+	private LongSupplier add;
+	private LongSupplier remove;
+	private LongSupplier draw;
+	private LongSupplier sort;
+
+
+	@Setup
+	public void setUp() {
+		copy = Workloads.create(WORKLOADS, "copy", numOfDecks, storage);
+		add = Workloads.create(WORKLOADS, "add", numOfDecks, storage);
+		remove = Workloads.create(WORKLOADS, "remove", numOfDecks, storage);
+		draw = Workloads.create(WORKLOADS, "draw", numOfDecks, storage);
+		sort = Workloads.create(WORKLOADS, "sort", numOfDecks, storage);
+	}
+
+	@Benchmark
+	public long copy() {
+		return copy.getAsLong();
+	}
+
+	@Benchmark
+	public long add() {
+		return add.getAsLong();
+	}
+
+	@Benchmark
+	public long remove() {
+		return remove.getAsLong();
+	}
+
+	@Benchmark
+	public long draw() {
+		return draw.getAsLong();
+	}
+
+	@Benchmark
+	public long sort() {
+		return sort.getAsLong();
+	}
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Sorting the shuffled cards of one to four decks with a CardComparator, see CardCollectionWorkloads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CardComparatorBenchmarks {
+
+	@Param({ "1", "2", "3", "4" })
+	public int numOfDecks;
+
+	private LongSupplier sort;
+
+
+	@Setup
+	public void setUp() {
+		sort = Workloads.create("CardCollectionWorkloads", "sortWithComparator", numOfDecks);
+	}
+
+	@Benchmark
+	public long sort() {
+		return sort.getAsLong();
+	}
+}
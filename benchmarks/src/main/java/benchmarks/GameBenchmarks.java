@@ -0,0 +1,53 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * A whole game of four players over loopback sockets in both wire formats, see GameWorkloads. The game listens
+ * on the port that clients connect to, so no GameServer may be running at the same time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmarks {
+
+	@Param({ "1", "4" })
+	public int numOfDecks;
+
+	@Param({ "BINARY", "OBJECT_STREAM" })
+	public String wireFormat;
+
+	private LongSupplier game;
+
+
+	@Setup
+	public void setUp() {
+		game = Workloads.create("GameWorkloads", "play", numOfDecks, wireFormat);
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		Workloads.close(game);
+	}
+
+	@Benchmark
+	public long playGame() {
+		return game.getAsLong();
+	}
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Scoring the hand that one of four players is dealt from one to four decks, as CardGame.calculateHandScore()
+ * does and by adding up every card as a baseline, see CardCollectionWorkloads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class HandScoreBenchmarks {
+
+	private static final String WORKLOADS = "CardCollectionWorkloads";
+
+	@Param({ "1", "2", "3", "4" })
+	public int numOfDecks;
+
+	@Param({ "COPY_ON_WRITE", "BYTE_ARRAY", "SORTED" })
+	public String storage;
+
+	private LongSupplier score;
+	private LongSupplier scoreByIteration;
+
+
+	@Setup
+	public void setUp() {
+		score = Workloads.create(WORKLOADS, "score", numOfDecks, storage);
+		scoreByIteration = Workloads.create(WORKLOADS, "scoreByIteration", numOfDecks, storage);
+	}
+
+	@Benchmark
+	public long calculateHandScore() {
+		return score.getAsLong();
+	}
+
+	@Benchmark
+	public long scoreByIteration() {
+		return scoreByIteration.getAsLong();
+	}
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Shuffling a pile of one to four decks and dealing it out to four players, in the storages that can be
+ * shuffled, see CardCollectionWorkloads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PileBenchmarks {
+
+	private static final String WORKLOADS = "CardCollectionWorkloads";
+
+	@Param({ "1", "2", "3", "4" })
+	public int numOfDecks;
+
+	@Param({ "COPY_ON_WRITE", "BYTE_ARRAY" })
+	public String storage;
+
+	private LongSupplier shuffle;
+	private LongSupplier deal;
+
+
+	@Setup
+	public void setUp() {
+		shuffle = Workloads.create(WORKLOADS, "shuffle", numOfDecks, storage);
+		deal = Workloads.create(WORKLOADS, "deal", numOfDecks, storage);
+	}
+
+	@Benchmark
+	public long shuffle() {
+		return shuffle.getAsLong();
+	}
+
+	@Benchmark
+	public long deal() {
+		return deal.getAsLong();
+	}
+}
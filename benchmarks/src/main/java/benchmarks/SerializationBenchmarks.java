@@ -0,0 +1,57 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Writing the hand that one of four players is dealt from one to four decks to an object stream, as the
+ * OBJECT_STREAM wire format sends it, and reading it back, see CardCollectionWorkloads. Every operation creates
+ * its own streams, so the cost of their headers is included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SerializationBenchmarks {
+
+	private static final String WORKLOADS = "CardCollectionWorkloads";
+
+	@Param({ "1", "2", "3", "4" })
+	public int numOfDecks;
+
+	@Param({ "COPY_ON_WRITE", "BYTE_ARRAY", "SORTED" })
+	public String storage;
+
+	private LongSupplier serialize;
+	private LongSupplier serializeAndDeserialize;
+
+
+	@Setup
+	public void setUp() {
+		serialize = Workloads.create(WORKLOADS, "serialize", numOfDecks, storage);
+		serializeAndDeserialize = Workloads.create(WORKLOADS, "serializeAndDeserialize", numOfDecks, storage);
+	}
+
+	@Benchmark
+	public long serialize() {
+		return serialize.getAsLong();
+	}
+
+	@Benchmark
+	public long serializeAndDeserialize() {
+		return serializeAndDeserialize.getAsLong();
+	}
+}
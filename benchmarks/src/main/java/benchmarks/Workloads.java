@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.LongSupplier;
+
+/*
+ * Looks up the workloads that the benchmarks measure. The game's classes are in the default package, which
+ * classes in a package cannot refer to, and JMH only accepts benchmarks in a package. So every workload is
+ * written in the default package, e.g. in CardCollectionWorkloads, as a public static method that returns the
+ * operation to measure as a LongSupplier. A benchmark looks the workload up once in its setup and then calls
+ * it through the interface, which the JIT inlines like a direct call, and consumes the returned value so that
+ * the work cannot be eliminated.
+ */
+final class Workloads {
+
+	private Workloads() {}
+
+
+	// ______________PACKAGE______________
+
+	/*
+	 * Calls the static method with the given name of the given default package class, passing it the given
+	 * arguments, and returns the workload it creates.
+	 */
+	static LongSupplier create(String className, String methodName, Object... args) {
+		try {
+			for (Method method : Class.forName(className).getMethods()) {
+				if (method.getName().equals(methodName) && method.getParameterCount() == args.length)
+					return (LongSupplier) method.invoke(null, args);
+			}
+		}
+		catch (ClassNotFoundException | IllegalAccessException e) {
+			throw new IllegalStateException("Workload " + className + "." + methodName + " cannot be created", e);
+		}
+		catch (InvocationTargetException e) {
+			throw new IllegalStateException("Workload " + className + "." + methodName + " failed to set up", e.getCause());
+		}
+		throw new IllegalArgumentException("No workload " + className + "." + methodName + " taking " + args.length + " arguments");
+	}
+
+	/*
+	 * Releases whatever the given workload holds on to, such as a socket, if it holds on to anything.
+	 */
+	static void close(LongSupplier workload) throws Exception {
+		if (workload instanceof AutoCloseable closeable) {
+			closeable.close();
+		}
+	}
+}